@@ -20,18 +20,23 @@
  */
 package jcoco;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PushbackInputStream;
 import java.util.ArrayList;
 import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Scanner;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.util.Set;
 import java.util.Stack;
 import jcoco.PyException.ExceptionType;
@@ -43,9 +48,58 @@ public class JCoCo {
     public static Stack<PyFrame> callStack = new Stack<PyFrame>();
     public static HashMap<PyTypeId, PyType> PyTypes = new HashMap<PyTypeId, PyType>();
     public static boolean verbose = false;
-    public static Scanner scanner;
     public static boolean stepOverInstructions = false;
 
+    /**
+     * Everything the program prints (with print, fprint, tprint, input, or
+     * sys.stdout) goes through this one buffered writer rather than straight
+     * to System.out, which would flush after every line. It is flushed when
+     * the program ends or exits (along with any files left open for
+     * writing), before input() waits for a line, when sys.stdout.flush() is
+     * called, and whenever it holds more than OUTPUT_BUFFER_SIZE chars. The
+     * size may be set with -Djcoco.outputbuffer=chars.
+     */
+    public static final int OUTPUT_BUFFER_SIZE = Math.max(Integer.getInteger("jcoco.outputbuffer", 1 << 16), 1);
+    public static final PrintWriter stdout = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)), OUTPUT_BUFFER_SIZE), false);
+
+    /**
+     * The one reader of the standard input. input(), sys.stdin, and the
+     * debugger all read through it, so none of them can take lines that
+     * another has already buffered.
+     */
+    static final PyTextReader stdin = new PyLineReader(Channels.newChannel(System.in), Charset.defaultCharset());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                PyFile.flushAll();
+                stdout.flush();
+            }
+        });
+    }
+
+    /**
+     * The next line of the standard input without its newline, or null at
+     * the end of the input.
+     */
+    static String inputLine() {
+        String line = stdin.readLine();
+
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        // The reader has made a "\r\n" into a '\n' already, just as it
+        // has for sys.stdin.readline().
+        if (line.charAt(line.length() - 1) == '\n') {
+            return line.substring(0, line.length() - 1);
+        }
+
+        return line;
+    }
+
     public static Stack<PyFrame> getCallStack() {
         return callStack;
     }
@@ -146,9 +200,9 @@ public class JCoCo {
         PyTypes.put(PyTypeId.PyListIteratorType, listIteratorType);
         listIteratorType.setInstanceFuns(PyListIterator.funs());
 
-        listIteratorType = new PyType("funlist_iterator", PyTypeId.PyFunListIteratorType);
-        PyTypes.put(PyTypeId.PyFunListIteratorType, listIteratorType);
-        listIteratorType.setInstanceFuns(PyFunList.funs());
+        PyType funlistIteratorType = new PyType("funlist_iterator", PyTypeId.PyFunListIteratorType);
+        PyTypes.put(PyTypeId.PyFunListIteratorType, funlistIteratorType);
+        funlistIteratorType.setInstanceFuns(PyFunListIterator.funs());
 
         PyType tupleIteratorType = new PyType("tuple_iterator", PyTypeId.PyTupleIteratorType);
         PyTypes.put(PyTypeId.PyTupleIteratorType, tupleIteratorType);
@@ -158,6 +212,102 @@ public class JCoCo {
         PyTypes.put(PyTypeId.PyStrIteratorType, strIteratorType);
         strIteratorType.setInstanceFuns(PyStrIterator.funs());
 
+        PyType dictType = new PyDictType();
+        PyTypes.put(PyTypeId.PyDictType, dictType);
+        dictType.setInstanceFuns(PyDict.funs());
+
+        PyType dictKeysType = new PyType("dict_keys", PyTypeId.PyDictKeysType);
+        PyTypes.put(PyTypeId.PyDictKeysType, dictKeysType);
+        dictKeysType.setInstanceFuns(PyDictView.funs());
+
+        PyType dictValuesType = new PyType("dict_values", PyTypeId.PyDictValuesType);
+        PyTypes.put(PyTypeId.PyDictValuesType, dictValuesType);
+        dictValuesType.setInstanceFuns(PyDictView.funs());
+
+        PyType dictItemsType = new PyType("dict_items", PyTypeId.PyDictItemsType);
+        PyTypes.put(PyTypeId.PyDictItemsType, dictItemsType);
+        dictItemsType.setInstanceFuns(PyDictView.funs());
+
+        PyType dictKeyIteratorType = new PyType("dict_keyiterator", PyTypeId.PyDictKeyIteratorType);
+        PyTypes.put(PyTypeId.PyDictKeyIteratorType, dictKeyIteratorType);
+        dictKeyIteratorType.setInstanceFuns(PyDictIterator.funs());
+
+        PyType dictValueIteratorType = new PyType("dict_valueiterator", PyTypeId.PyDictValueIteratorType);
+        PyTypes.put(PyTypeId.PyDictValueIteratorType, dictValueIteratorType);
+        dictValueIteratorType.setInstanceFuns(PyDictIterator.funs());
+
+        PyType dictItemIteratorType = new PyType("dict_itemiterator", PyTypeId.PyDictItemIteratorType);
+        PyTypes.put(PyTypeId.PyDictItemIteratorType, dictItemIteratorType);
+        dictItemIteratorType.setInstanceFuns(PyDictIterator.funs());
+
+        PyType setType = new PySetType(false);
+        PyTypes.put(PyTypeId.PySetTypeId, setType);
+        setType.setInstanceFuns(PySet.funs());
+
+        PyType frozenSetType = new PySetType(true);
+        PyTypes.put(PyTypeId.PyFrozenSetTypeId, frozenSetType);
+        frozenSetType.setInstanceFuns(PySet.frozenFuns());
+
+        PyType setIteratorType = new PyType("set_iterator", PyTypeId.PySetIteratorType);
+        PyTypes.put(PyTypeId.PySetIteratorType, setIteratorType);
+        setIteratorType.setInstanceFuns(PySetIterator.funs());
+
+        PyType sliceType = new PySliceType();
+        PyTypes.put(PyTypeId.PySliceTypeId, sliceType);
+        sliceType.setInstanceFuns(PySlice.funs());
+
+        PyType mapIteratorType = new PyType("map", PyTypeId.PyMapIteratorTypeId);
+        PyTypes.put(PyTypeId.PyMapIteratorTypeId, mapIteratorType);
+        mapIteratorType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType filterType = new PyType("filter", PyTypeId.PyFilterIteratorTypeId);
+        PyTypes.put(PyTypeId.PyFilterIteratorTypeId, filterType);
+        filterType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType zipType = new PyType("zip", PyTypeId.PyZipIteratorTypeId);
+        PyTypes.put(PyTypeId.PyZipIteratorTypeId, zipType);
+        zipType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType enumerateType = new PyType("enumerate", PyTypeId.PyEnumerateIteratorTypeId);
+        PyTypes.put(PyTypeId.PyEnumerateIteratorTypeId, enumerateType);
+        enumerateType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType reversedType = new PyType("reversed", PyTypeId.PyReversedIteratorTypeId);
+        PyTypes.put(PyTypeId.PyReversedIteratorTypeId, reversedType);
+        reversedType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType arrayType = new PyArrayType();
+        PyTypes.put(PyTypeId.PyArrayTypeId, arrayType);
+        arrayType.setInstanceFuns(PyArray.funs());
+
+        PyType arrayIteratorType = new PyType("arrayiterator", PyTypeId.PyArrayIteratorTypeId);
+        PyTypes.put(PyTypeId.PyArrayIteratorTypeId, arrayIteratorType);
+        arrayIteratorType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType dequeType = new PyDequeType();
+        PyTypes.put(PyTypeId.PyDequeTypeId, dequeType);
+        dequeType.setInstanceFuns(PyDeque.funs());
+
+        PyType dequeIteratorType = new PyType("_collections._deque_iterator", PyTypeId.PyDequeIteratorTypeId);
+        PyTypes.put(PyTypeId.PyDequeIteratorTypeId, dequeIteratorType);
+        dequeIteratorType.setInstanceFuns(PyLazyIterator.funs());
+
+        PyType bytesType = new PyBytesType(false);
+        PyTypes.put(PyTypeId.PyBytesTypeId, bytesType);
+        bytesType.setInstanceFuns(PyBytes.funs());
+
+        PyType byteArrayType = new PyBytesType(true);
+        PyTypes.put(PyTypeId.PyByteArrayTypeId, byteArrayType);
+        byteArrayType.setInstanceFuns(PyBytes.arrayFuns());
+
+        PyType memoryViewType = new PyMemoryViewType();
+        PyTypes.put(PyTypeId.PyMemoryViewTypeId, memoryViewType);
+        memoryViewType.setInstanceFuns(PyMemoryView.funs());
+
+        PyType bytesIteratorType = new PyType("bytes_iterator", PyTypeId.PyBytesIteratorTypeId);
+        PyTypes.put(PyTypeId.PyBytesIteratorTypeId, bytesIteratorType);
+        bytesIteratorType.setInstanceFuns(PyLazyIterator.funs());
+
         PyType codeType = new PyType("code", PyTypeId.PyCodeType);
         PyTypes.put(PyTypeId.PyCodeType, codeType);
 
@@ -193,8 +343,6 @@ public class JCoCo {
         String fileName;
         int k;
 
-        scanner = new Scanner(System.in);
-
         initTypes();
 
         if (args.length == 0 || args.length > 2) {
@@ -241,11 +389,29 @@ public class JCoCo {
             globals.put("iter", new PyBuiltInIter());
             globals.put("repr", new PyBuiltInRepr());
             globals.put("concat", new PyBuiltInConcat());
+            globals.put("sorted", new PyBuiltInSorted());
+            globals.put("sum", new PyBuiltInSum());
+            globals.put("min", new PyBuiltInMin());
+            globals.put("max", new PyBuiltInMax());
+            globals.put("any", new PyBuiltInAny());
+            globals.put("all", new PyBuiltInAll());
+            globals.put("enumerate", new PyBuiltInEnumerate());
+            globals.put("zip", new PyBuiltInZip());
+            globals.put("map", new PyBuiltInMap());
+            globals.put("filter", new PyBuiltInFilter());
+            globals.put("reversed", new PyBuiltInReversed());
             globals.put("int", PyTypes.get(PyTypeId.PyIntType));
             globals.put("float", PyTypes.get(PyTypeId.PyFloatType));
             globals.put("str", PyTypes.get(PyTypeId.PyStrType));
             globals.put("funlist", PyTypes.get(PyTypeId.PyFunListType));
             globals.put("list", PyTypes.get(PyTypeId.PyListType));
+            globals.put("dict", PyTypes.get(PyTypeId.PyDictType));
+            globals.put("set", PyTypes.get(PyTypeId.PySetTypeId));
+            globals.put("frozenset", PyTypes.get(PyTypeId.PyFrozenSetTypeId));
+            globals.put("slice", PyTypes.get(PyTypeId.PySliceTypeId));
+            globals.put("bytes", PyTypes.get(PyTypeId.PyBytesTypeId));
+            globals.put("bytearray", PyTypes.get(PyTypeId.PyByteArrayTypeId));
+            globals.put("memoryview", PyTypes.get(PyTypeId.PyMemoryViewTypeId));
             globals.put("type", PyTypes.get(PyTypeId.PyTypeType));
             globals.put("bool", PyTypes.get(PyTypeId.PyBoolType));
             globals.put("range", PyTypes.get(PyTypeId.PyRangeTypeId));
@@ -258,6 +424,12 @@ public class JCoCo {
             globals.put("sys", sys);
             PyObject turtle = new PyModuleTurtle();
             globals.put("turtle", turtle);
+            PyObject array = new PyModuleArray();
+            globals.put("array", array);
+            PyObject collections = new PyModuleCollections();
+            globals.put("collections", collections);
+            PyObject heapq = new PyModuleHeapq();
+            globals.put("heapq", heapq);
 
             //now add the top-level functions
             boolean foundMain = false;
@@ -283,7 +455,11 @@ public class JCoCo {
 
             ArrayList<PyObject> arguments = new ArrayList<PyObject>();
             PyObject result = globals.get("main").callMethod("__call__", arguments);
+            PyFile.flushAll();
+            stdout.flush();
         } catch (PyException ex) {
+            // Whatever the program printed comes before the error report.
+            stdout.flush();
             System.err.print("\n\n");
             System.err.println("*********************************************************");
             System.err.println("        An Uncaught Exception Occurred");
@@ -0,0 +1,494 @@
+/**
+ * PyArray.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The array type of the array module. An array holds numbers of one C type,
+ * given by its typecode: 'b' (signed char), 'i' (int), 'l' (long), or 'd'
+ * (double). The numbers are stored packed in a ByteBuffer in the machine's
+ * byte order, itemsize bytes each, so a million ints take four megabytes
+ * instead of a million PyInt objects. A PyInt or PyFloat is created only when
+ * an element is read.
+ *
+ * Because the buffer holds exactly the bytes a C array would, tofile and
+ * fromfile move the elements to and from a file opened in binary mode with
+ * one channel write or read, and the built-in sum, min, and max run over the
+ * buffer without creating any objects.
+ */
+package jcoco;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyArray extends PyPrimitiveTypeAdapter {
+
+    private final char typecode;
+    private final int itemsize;
+    private ByteBuffer data;
+    private int size;
+
+    public PyArray(char typecode, int capacity) {
+        super("array", PyTypeId.PyArrayTypeId, true);
+        this.typecode = typecode;
+        this.itemsize = itemSize(typecode);
+        this.data = allocate(Math.max(capacity, 8) * this.itemsize);
+    }
+
+    static int itemSize(char typecode) {
+        switch (typecode) {
+            case 'b':
+                return 1;
+            case 'i':
+                return 4;
+            case 'l':
+            case 'd':
+                return 8;
+            default:
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ValueError: bad typecode (must be b, i, l or d)");
+        }
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private void ensureCapacity(int needed) {
+        if ((long) needed * this.itemsize > this.data.capacity()) {
+            int capacity = this.data.capacity() / this.itemsize;
+            capacity = Math.max(needed, capacity + (capacity >> 1) + 8);
+
+            if ((long) capacity * this.itemsize > Integer.MAX_VALUE) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "MemoryError");
+            }
+
+            ByteBuffer bigger = allocate(capacity * this.itemsize);
+            bigger.put(bytes(0, this.size));
+            this.data = bigger;
+        }
+    }
+
+    // A buffer positioned on the bytes of elements start to end.
+    private ByteBuffer bytes(int start, int end) {
+        ByteBuffer view = this.data.duplicate();
+        view.limit(end * this.itemsize);
+        view.position(start * this.itemsize);
+
+        return view;
+    }
+
+    public char typecode() {
+        return this.typecode;
+    }
+
+    public int len() {
+        return this.size;
+    }
+
+    private long longAt(int index) {
+        switch (this.typecode) {
+            case 'b':
+                return this.data.get(index);
+            case 'i':
+                return this.data.getInt(index * 4);
+            default:
+                return this.data.getLong(index * 8);
+        }
+    }
+
+    private double doubleAt(int index) {
+        return this.data.getDouble(index * 8);
+    }
+
+    public PyObject get(int index) {
+        if (this.typecode == 'd') {
+            return new PyFloat(doubleAt(index));
+        }
+
+        return new PyInt(toInt(longAt(index)));
+    }
+
+    public void set(int index, PyObject x) {
+        if (this.typecode == 'd') {
+            double value;
+
+            if (x instanceof PyFloat) {
+                value = ((PyFloat) x).getVal();
+            } else if (x instanceof PyInt) {
+                value = ((PyInt) x).getVal();
+            } else {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "TypeError: must be real number, not " + x.getType().str());
+            }
+
+            this.data.putDouble(index * 8, value);
+            return;
+        }
+
+        long value;
+
+        if (x instanceof PyInt) {
+            value = ((PyInt) x).getVal();
+        } else if (x instanceof PyBool) {
+            value = ((PyBool) x).getIntVal();
+        } else {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: an integer is required (got type " + x.getType().str() + ")");
+        }
+
+        switch (this.typecode) {
+            case 'b':
+                if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "OverflowError: signed char is " + (value < 0 ? "less than minimum" : "greater than maximum"));
+                }
+                this.data.put(index, (byte) value);
+                break;
+            case 'i':
+                this.data.putInt(index * 4, (int) value);
+                break;
+            default:
+                this.data.putLong(index * 8, value);
+        }
+    }
+
+    public void append(PyObject x) {
+        ensureCapacity(this.size + 1);
+        set(this.size, x);
+        this.size++;
+    }
+
+    public void extend(PyObject iterable) {
+        if (iterable instanceof PyArray && ((PyArray) iterable).typecode == this.typecode) {
+            PyArray other = (PyArray) iterable;
+            int count = other.size;
+            ensureCapacity(this.size + count);
+            bytes(this.size, this.size + count).put(other.bytes(0, count));
+            this.size += count;
+            return;
+        }
+
+        if (iterable instanceof PyArray) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: can only extend with array of same kind");
+        }
+
+        java.util.Iterator<PyObject> items = PyIterables.iterator(iterable);
+
+        while (items.hasNext()) {
+            append(items.next());
+        }
+    }
+
+    public PyArray slice(PySlice slice) {
+        int[] indices = slice.indices(this.size);
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+        PyArray result = new PyArray(this.typecode, count);
+
+        if (step == 1) {
+            result.data.put(bytes(start, start + count));
+        } else {
+            for (int k = 0; k < count; k++) {
+                int from = (start + k * step) * this.itemsize;
+                for (int b = 0; b < this.itemsize; b++) {
+                    result.data.put(k * this.itemsize + b, this.data.get(from + b));
+                }
+            }
+        }
+
+        result.size = count;
+
+        return result;
+    }
+
+    /**
+     * The sum of the elements, computed on the buffer. The sum of an int
+     * array must fit in an int.
+     */
+    public PyObject sum(PyObject start) {
+        if (this.typecode == 'd' || start instanceof PyFloat) {
+            double total = start instanceof PyFloat ? ((PyFloat) start).getVal() : ((PyInt) start).getVal();
+
+            for (int k = 0; k < this.size; k++) {
+                total += this.typecode == 'd' ? doubleAt(k) : longAt(k);
+            }
+
+            return new PyFloat(total);
+        }
+
+        long total = ((PyInt) start).getVal();
+
+        for (int k = 0; k < this.size; k++) {
+            total += longAt(k);
+        }
+
+        return new PyInt(toInt(total));
+    }
+
+    /**
+     * The smallest (or with largest set, the largest) element.
+     */
+    public PyObject extreme(boolean largest) {
+        if (this.size == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: " + (largest ? "max" : "min") + "() arg is an empty sequence");
+        }
+
+        if (this.typecode == 'd') {
+            double best = doubleAt(0);
+
+            for (int k = 1; k < this.size; k++) {
+                double x = doubleAt(k);
+                if (largest ? best < x : x < best) {
+                    best = x;
+                }
+            }
+
+            return new PyFloat(best);
+        }
+
+        long best = longAt(0);
+
+        for (int k = 1; k < this.size; k++) {
+            long x = longAt(k);
+            if (largest ? best < x : x < best) {
+                best = x;
+            }
+        }
+
+        return new PyInt(toInt(best));
+    }
+
+    private static int toInt(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "OverflowError: int too large");
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Writes the elements to a file opened with mode 'wb'.
+     */
+    public void tofile(PyFile file) {
+        FileChannel channel = file.channel(true);
+        ByteBuffer out = bytes(0, this.size);
+
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads count elements from a file opened with mode 'rb' and appends
+     * them. If the file ends first, the elements that were there are
+     * appended and an EOFError is raised.
+     */
+    public void fromfile(PyFile file, int count) {
+        if (count < 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: negative count");
+        }
+
+        FileChannel channel = file.channel(false);
+        ensureCapacity(this.size + count);
+        ByteBuffer in = bytes(this.size, this.size + count);
+
+        try {
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+            }
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+
+        int read = (in.position() / this.itemsize) - this.size;
+        this.size += read;
+
+        if (read < count) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "EOFError: read() didn't return enough bytes");
+        }
+    }
+
+    @Override
+    public String str() {
+        if (this.size == 0) {
+            return "array('" + this.typecode + "')";
+        }
+
+        StringBuilder s = new StringBuilder("array('").append(this.typecode).append("', [");
+
+        for (int k = 0; k < this.size; k++) {
+            if (k > 0) {
+                s.append(", ");
+            }
+
+            s.append(get(k).str());
+        }
+
+        return s.append("])").toString();
+    }
+
+    private static int index(PyArray self, PyObject indexObj) {
+        int index = ((PyInt) indexObj).getVal();
+
+        if (index < 0) {
+            index += self.size;
+        }
+
+        if (index < 0 || index >= self.size) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: array index out of range");
+        }
+
+        return index;
+    }
+
+    private static void checkArgs(ArrayList<PyObject> args, int count) {
+        if (args.size() != count) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected " + count + " arguments, got " + args.size());
+        }
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+
+                return new PyInt(self.size);
+            }
+        });
+
+        funs.put("__getitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
+                return self.get(index(self, args.get(0)));
+            }
+        });
+
+        funs.put("__setitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 3);
+
+                // The arguments are the value, the index, and self.
+                PyArray self = (PyArray) args.get(args.size() - 1);
+
+                self.set(index(self, args.get(1)), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+
+                return new PyLazyIterator("arrayiterator", PyTypeId.PyArrayIteratorTypeId,
+                        PyIterables.iterator(self));
+            }
+        });
+
+        funs.put("append", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+                self.append(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("extend", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+                self.extend(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("tolist", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+                ArrayList<PyObject> items = new ArrayList<PyObject>(self.size);
+
+                for (int k = 0; k < self.size; k++) {
+                    items.add(self.get(k));
+                }
+
+                return new PyList(items);
+            }
+        });
+
+        funs.put("tofile", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyArray self = (PyArray) args.get(args.size() - 1);
+                self.tofile((PyFile) args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("fromfile", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 3);
+
+                // The arguments are the count, the file, and self.
+                PyArray self = (PyArray) args.get(args.size() - 1);
+                self.fromfile((PyFile) args.get(1), ((PyInt) args.get(0)).getVal());
+
+                return new PyNone();
+            }
+        });
+
+        return funs;
+    }
+}
@@ -0,0 +1,48 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the array type of the array module. array(typecode)
+ * makes an empty array and array(typecode, initializer) fills it from a list
+ * or any other iterable of numbers.
+ */
+
+public class PyArrayType extends PyType {
+
+    public PyArrayType() {
+        super("array.array", PyType.PyTypeId.PyArrayTypeId);
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 1 || args.size() > 2) {
+            throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: array expected 1 or 2 arguments, got " + args.size());
+        }
+
+        // The arguments are in reverse order.
+        PyObject typecode = args.get(args.size() - 1);
+
+        if (!(typecode instanceof PyStr) || typecode.str().length() != 1) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: array() argument 1 must be a unicode character, not " + typecode.getType().str());
+        }
+
+        PyArray result = new PyArray(typecode.str().charAt(0), 0);
+
+        if (args.size() == 2) {
+            result.extend(args.get(0));
+        }
+
+        return result;
+    }
+}
@@ -23,9 +23,8 @@ public class PyBool extends PyPrimitiveTypeAdapter {
     private boolean val;
 
     public PyBool(boolean b) { 
-        super("bool", PyTypeId.PyBoolType);
+        super("bool", PyTypeId.PyBoolType, true);
         this.val = b;
-        initMethods(funs());
     }
 
     @Override
@@ -48,6 +47,79 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         return 0;
     }
 
+    /**
+     * Whether x counts as true in a condition, as Python's bool(x) would say.
+     */
+    public static boolean isTrue(PyObject x) {
+        if (x instanceof PyBool) {
+            return ((PyBool) x).getVal();
+        }
+
+        if (x instanceof PyNone) {
+            return false;
+        }
+
+        if (x instanceof PyInt) {
+            return ((PyInt) x).getVal() != 0;
+        }
+
+        if (x instanceof PyFloat) {
+            return ((PyFloat) x).getVal() != 0;
+        }
+
+        if (x instanceof PyStr) {
+            return ((PyStr) x).len() != 0;
+        }
+
+        if (x instanceof PyList) {
+            return ((PyList) x).len() != 0;
+        }
+
+        if (x instanceof PyTuple) {
+            return ((PyTuple) x).size() != 0;
+        }
+
+        if (x instanceof PyRange) {
+            return !((PyRange) x).isEmpty();
+        }
+
+        if (x instanceof PyDict) {
+            return ((PyDict) x).len() != 0;
+        }
+
+        if (x instanceof PySet) {
+            return ((PySet) x).len() != 0;
+        }
+
+        if (x instanceof PyFunList) {
+            return ((PyFunList) x).len() != 0;
+        }
+
+        if (x instanceof PyDeque) {
+            return ((PyDeque) x).len() != 0;
+        }
+
+        if (x instanceof PyBytes) {
+            return ((PyBytes) x).len() != 0;
+        }
+
+        if (x instanceof PyObjectInst) {
+            HashMap<String, PyObject> dict = ((PyObjectInst) x).dict;
+
+            // Like Python's, an object whose class defines neither __bool__
+            // nor __len__ is true.
+            if (!dict.containsKey("__bool__")) {
+                if (dict.containsKey("__len__")) {
+                    return ((PyInt) x.callMethod("__len__", new ArrayList<PyObject>())).getVal() != 0;
+                }
+
+                return true;
+            }
+        }
+
+        return ((PyBool) x.callMethod("__bool__", new ArrayList<PyObject>())).getVal();
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
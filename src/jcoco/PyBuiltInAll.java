@@ -0,0 +1,54 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in all function returns True if every element of an iterable is
+ * true, and stops looking at the first one that is not.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInAll extends PyCallableAdapter {
+
+    public PyBuiltInAll() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function all>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() != 1) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 1 argument, got " + args.size());
+        }
+
+        Iterator<PyObject> items = PyIterables.iterator(args.get(0));
+
+        while (items.hasNext()) {
+            if (!PyBool.isTrue(items.next())) {
+                return new PyBool(false);
+            }
+        }
+
+        return new PyBool(true);
+    }
+}
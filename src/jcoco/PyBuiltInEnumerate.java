@@ -0,0 +1,73 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in enumerate function returns an iterator over (index, element)
+ * tuples for the elements of an iterable. The index starts at 0 or at the
+ * optional second argument. The tuples are made one at a time as the
+ * iterator is advanced.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInEnumerate extends PyCallableAdapter {
+
+    public PyBuiltInEnumerate() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function enumerate>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 1 || args.size() > 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 1 or 2 arguments, got " + args.size());
+        }
+
+        // The arguments arrive in reverse order.
+        final Iterator<PyObject> items = PyIterables.iterator(args.get(args.size() - 1));
+        final int start = args.size() == 2 ? ((PyInt) args.get(0)).getVal() : 0;
+
+        return new PyLazyIterator("enumerate", PyTypeId.PyEnumerateIteratorTypeId, new Iterator<PyObject>() {
+            private int index = start;
+
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public PyObject next() {
+                ArrayList<PyObject> pair = new ArrayList<PyObject>(2);
+                pair.add(new PyInt(this.index++));
+                pair.add(items.next());
+
+                return new PyTuple(pair);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+}
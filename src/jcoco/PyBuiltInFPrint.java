@@ -84,7 +84,7 @@ public class PyBuiltInFPrint extends PyCallableAdapter {
             output = processit(output);
         }
         
-        System.out.print(output);
+        JCoCo.stdout.print(output);
         
         return this;
     }
@@ -0,0 +1,85 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in filter function returns an iterator over the elements of an
+ * iterable for which a function returns a true value, or, if the function is
+ * None, over the elements that are true themselves. The function is called
+ * only as the iterator is advanced.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInFilter extends PyCallableAdapter {
+
+    public PyBuiltInFilter() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function filter>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() != 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 2 arguments, got " + args.size());
+        }
+
+        // The arguments arrive in reverse order.
+        final PyObject fun = args.get(1) instanceof PyNone ? null : args.get(1);
+        final Iterator<PyObject> items = PyIterables.iterator(args.get(0));
+
+        return new PyLazyIterator("filter", PyTypeId.PyFilterIteratorTypeId, new Iterator<PyObject>() {
+            private PyObject next;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == null && items.hasNext()) {
+                    PyObject x = items.next();
+
+                    if (PyBool.isTrue(fun == null ? x : PyIterables.call(fun, x))) {
+                        this.next = x;
+                    }
+                }
+
+                return this.next != null;
+            }
+
+            @Override
+            public PyObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                PyObject result = this.next;
+                this.next = null;
+
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+}
@@ -16,7 +16,6 @@
 package jcoco;
 
 import java.util.ArrayList;
-import java.util.Scanner;
 import jcoco.PyException.ExceptionType;
 import jcoco.PyType.PyTypeId;
 
@@ -56,11 +55,17 @@ public class PyBuiltInInput extends PyCallableAdapter {
         
         y = (PyStr)x;
         
-        System.out.print(y.str());
+        // The prompt, and anything printed before it, must be seen before
+        // the program waits for the line.
+        JCoCo.stdout.print(y.str());
+        JCoCo.stdout.flush();
         
-        //Only one scanner can be created in Java due to some problem when 
-        //creating multiple. 
-        line = JCoCo.scanner.nextLine();
+        line = JCoCo.inputLine();
+
+        if (line == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                                "EOFError: EOF when reading a line");
+        }
         
         return new PyStr(line);     
     } 
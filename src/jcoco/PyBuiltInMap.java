@@ -0,0 +1,91 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in map function returns an iterator over the results of calling
+ * a function on the elements of one or more iterables. Given several
+ * iterables, the function gets one element of each and the iterator stops
+ * when the shortest of them runs out. The function is called only as the
+ * iterator is advanced.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInMap extends PyCallableAdapter {
+
+    public PyBuiltInMap() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function map>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected at least 2 arguments, got " + args.size());
+        }
+
+        // The arguments arrive in reverse order, the function last.
+        final PyObject fun = args.get(args.size() - 1);
+        final ArrayList<Iterator<PyObject>> sources = new ArrayList<Iterator<PyObject>>(args.size() - 1);
+
+        for (int k = args.size() - 2; k >= 0; k--) {
+            sources.add(PyIterables.iterator(args.get(k)));
+        }
+
+        return new PyLazyIterator("map", PyTypeId.PyMapIteratorTypeId, new Iterator<PyObject>() {
+            @Override
+            public boolean hasNext() {
+                for (Iterator<PyObject> source : sources) {
+                    if (!source.hasNext()) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+            @Override
+            public PyObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                // The function gets its arguments in reverse order, as from
+                // CALL_FUNCTION.
+                ArrayList<PyObject> callArgs = new ArrayList<PyObject>(sources.size());
+
+                for (Iterator<PyObject> source : sources) {
+                    callArgs.add(0, source.next());
+                }
+
+                return fun.callMethod("__call__", callArgs);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+}
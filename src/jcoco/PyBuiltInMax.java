@@ -0,0 +1,79 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in max function returns the largest element of an iterable, or
+ * the largest of its arguments when it is given more than one. Ints, floats,
+ * strs, and tuples are compared directly; other objects are compared with
+ * __lt__. The first of several equal largest elements is the one returned.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInMax extends PyCallableAdapter {
+
+    public PyBuiltInMax() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function max>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 1) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected at least 1 argument, got " + args.size());
+        }
+
+        Iterator<PyObject> items;
+
+        // Given one argument, min and max look through its elements, and
+        // given more they look through the arguments (which arrive in
+        // reverse order).
+        if (args.size() == 1 && args.get(0) instanceof PyArray) {
+            return ((PyArray) args.get(0)).extreme(true);
+        } else if (args.size() == 1) {
+            items = PyIterables.iterator(args.get(0));
+        } else {
+            ArrayList<PyObject> values = new ArrayList<PyObject>(args);
+            Collections.reverse(values);
+            items = values.iterator();
+        }
+
+        if (!items.hasNext()) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: max() arg is an empty sequence");
+        }
+
+        PyObject best = items.next();
+
+        while (items.hasNext()) {
+            PyObject x = items.next();
+
+            if (PyTuple.lessThan(best, x)) {
+                best = x;
+            }
+        }
+
+        return best;
+    }
+}
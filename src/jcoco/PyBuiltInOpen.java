@@ -46,8 +46,9 @@ public class PyBuiltInOpen extends PyCallableAdapter {
 
         filename = (PyStr) args.get(args.size()-1);
         
+        // The arguments are in reverse order, so the mode comes first.
         if (args.size()>1) {
-            mode = (PyStr) args.get(1);
+            mode = (PyStr) args.get(0);
         }
 
         return new PyFile(filename.str(), mode.str());
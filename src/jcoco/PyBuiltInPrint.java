@@ -37,21 +37,18 @@ public class PyBuiltInPrint extends PyCallableAdapter {
 
     @Override
     public PyObject __call__(ArrayList<PyObject> args) {
-        String output = "";
-        PyObject x;
-        PyObject w;
-
-        for (int i = 0; i < args.size(); i++) {
-            ArrayList<PyObject> strargs = new ArrayList<PyObject>();
-            x = args.get(i);
-            w = x.callMethod("__str__", strargs);
-            output = w.str() + output;
-
-            if (i < args.size() - 1) {
-                output = " " + output;
+        ArrayList<PyObject> strargs = new ArrayList<PyObject>();
+
+        // The arguments are in reverse order.
+        for (int i = args.size() - 1; i >= 0; i--) {
+            JCoCo.stdout.write(args.get(i).callMethod("__str__", strargs).str());
+
+            if (i > 0) {
+                JCoCo.stdout.write(' ');
             }
         }
-        System.out.println(output);
+
+        JCoCo.stdout.println();
 
         return new PyNone();
     }
@@ -0,0 +1,48 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in reversed function returns an iterator over the elements of a
+ * sequence from last to first. Lists, tuples, strs, ranges, and funlists are
+ * read backwards in place without being copied; any other object needs a
+ * __reversed__ method or both __len__ and __getitem__.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInReversed extends PyCallableAdapter {
+
+    public PyBuiltInReversed() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function reversed>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() != 1) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 1 argument, got " + args.size());
+        }
+
+        return new PyLazyIterator("reversed", PyTypeId.PyReversedIteratorTypeId,
+                PyIterables.reversed(args.get(0)));
+    }
+}
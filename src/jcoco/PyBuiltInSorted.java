@@ -0,0 +1,55 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in sorted function returns a new list of the elements of any
+ * iterable in ascending order. CoCo has no keyword arguments, so the key
+ * function and the reverse flag are passed positionally, as in
+ * sorted(iterable[, key[, reverse]]). A key of None means no key function.
+ * See PySort for how the elements are compared.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInSorted extends PyCallableAdapter {
+
+    public PyBuiltInSorted() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function sorted>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 1 || args.size() > 3) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 1 to 3 arguments, got " + args.size());
+        }
+
+        // The arguments arrive in reverse order.
+        PyList result = PyList.of(args.get(args.size() - 1));
+        PyObject key = args.size() > 1 ? args.get(args.size() - 2) : null;
+        boolean reverse = args.size() > 2 && PyBool.isTrue(args.get(0));
+
+        result.sort(key instanceof PyNone ? null : key, reverse);
+
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in sum function adds up the elements of an iterable, starting
+ * from 0 or from the optional second argument. While the total and the
+ * elements are ints (or ints and floats) they are added as java numbers; the
+ * first element of another type switches to calling __add__.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInSum extends PyCallableAdapter {
+
+    public PyBuiltInSum() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function sum>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() < 1 || args.size() > 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 1 or 2 arguments, got " + args.size());
+        }
+
+        // The arguments arrive in reverse order.
+        PyObject start = args.size() == 2 ? args.get(0) : new PyInt(0);
+
+        if (start instanceof PyStr) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: sum() can't sum strings [use ''.join(seq) instead]");
+        }
+
+        PyObject iterable = args.get(args.size() - 1);
+
+        if (iterable instanceof PyArray && isNumber(start)) {
+            return ((PyArray) iterable).sum(start);
+        }
+
+        Iterator<PyObject> items = PyIterables.iterator(iterable);
+        PyObject pending = items.hasNext() ? items.next() : null;
+
+        if (start instanceof PyInt) {
+            int total = ((PyInt) start).getVal();
+
+            while (pending instanceof PyInt) {
+                // Overflows like PyInt's __add__ does.
+                total = Math.addExact(total, ((PyInt) pending).getVal());
+                pending = items.hasNext() ? items.next() : null;
+            }
+
+            start = new PyInt(total);
+        }
+
+        if (isNumber(start) && isNumber(pending)) {
+            double total = toDouble(start);
+
+            while (isNumber(pending)) {
+                total += toDouble(pending);
+                pending = items.hasNext() ? items.next() : null;
+            }
+
+            start = new PyFloat(total);
+        }
+
+        ArrayList<PyObject> addArgs = new ArrayList<PyObject>(1);
+
+        while (pending != null) {
+            addArgs.add(pending);
+            start = start.callMethod("__add__", addArgs);
+            addArgs.clear();
+            pending = items.hasNext() ? items.next() : null;
+        }
+
+        return start;
+    }
+
+    private static boolean isNumber(PyObject x) {
+        return x instanceof PyInt || x instanceof PyFloat;
+    }
+
+    private static double toDouble(PyObject x) {
+        if (x instanceof PyInt) {
+            return ((PyInt) x).getVal();
+        }
+
+        return ((PyFloat) x).getVal();
+    }
+}
@@ -67,7 +67,6 @@ public class PyBuiltInTPrint extends PyCallableAdapter {
     
     @Override
     public PyObject __call__(ArrayList<PyObject> args) {
-        String output = "";
         PyObject x;
         PyObject w;
         ArrayList<PyObject> strargs = new ArrayList<PyObject>();
@@ -82,24 +81,24 @@ public class PyBuiltInTPrint extends PyCallableAdapter {
         if (arg.getType().typeId() == PyTypeId.PyTupleType) {
             PyTuple tup = (PyTuple) arg;
                                 
-            for (int i = tup.size()-1; i >= 0; i--) {
+            for (int i = 0; i < tup.size(); i++) {
                 x = tup.getVal(i);
                 w = x.callMethod("__str__", strargs);
                 if (x.getType().typeId() == PyTypeId.PyStrType) {
-                    output = process(w.str()) + output;
+                    JCoCo.stdout.write(process(w.str()));
                 } else {
-                    output = w.str() + output;
+                    JCoCo.stdout.write(w.str());
                 }
                 
-                if (i>0){
-                    output = " "+output;
+                if (i < tup.size() - 1) {
+                    JCoCo.stdout.write(' ');
                 }
             }
         } else {
-            output = arg.str();
+            JCoCo.stdout.write(arg.str());
         }
         
-        System.out.println(output);
+        JCoCo.stdout.println();
         
         return new PyNone();
     }
@@ -0,0 +1,89 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The built-in zip function returns an iterator over tuples of the
+ * corresponding elements of its arguments, stopping when the shortest of
+ * them runs out. The tuples are made one at a time as the iterator is
+ * advanced.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBuiltInZip extends PyCallableAdapter {
+
+    public PyBuiltInZip() {
+        super();
+    }
+
+    @Override
+    public PyType getType() {
+        return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+    }
+
+    @Override
+    public String str() {
+        return "<built-in function zip>";
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        final ArrayList<Iterator<PyObject>> sources = new ArrayList<Iterator<PyObject>>(args.size());
+
+        // The arguments arrive in reverse order.
+        for (int k = args.size() - 1; k >= 0; k--) {
+            sources.add(PyIterables.iterator(args.get(k)));
+        }
+
+        return new PyLazyIterator("zip", PyTypeId.PyZipIteratorTypeId, new Iterator<PyObject>() {
+            private ArrayList<PyObject> next;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next == null && !sources.isEmpty()) {
+                    ArrayList<PyObject> items = new ArrayList<PyObject>(sources.size());
+
+                    for (Iterator<PyObject> source : sources) {
+                        if (!source.hasNext()) {
+                            return false;
+                        }
+
+                        items.add(source.next());
+                    }
+
+                    this.next = items;
+                }
+
+                return this.next != null;
+            }
+
+            @Override
+            public PyObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                PyTuple result = new PyTuple(this.next);
+                this.next = null;
+
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+}
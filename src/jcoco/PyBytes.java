@@ -0,0 +1,615 @@
+/**
+ * PyBytes.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The JCoCo implementation of bytes and bytearray, sequences of small ints
+ * from 0 to 255 held in a java byte array. A bytearray is a bytes object that
+ * can be changed, in the same way that a set is a frozenset that can be
+ * changed, and both are implemented by this class.
+ *
+ * A bytes object is a window of size bytes, starting at offset, on its byte
+ * array. Since a bytes object never changes, a slice with a step of 1 is a
+ * window on the same array, and taking it copies nothing. A bytearray owns
+ * its whole array and grows it by copying, as a list does, so its slices are
+ * copies. A memoryview is a window on a bytearray that sees its changes, and
+ * while one is in use the bytearray cannot change its size.
+ *
+ * Binary files read into and write from these arrays directly through
+ * ByteBuffers that wrap them.
+ */
+package jcoco;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyBytes extends PyPrimitiveTypeAdapter {
+
+    private byte[] data;
+    private int offset;
+    private int size;
+    private final boolean mutable;
+    private int hash;
+    private boolean hashed;
+    // The number of memoryviews of a bytearray that have not been released.
+    int exports;
+
+    PyBytes(byte[] data, int offset, int size, boolean mutable) {
+        super(mutable ? "bytearray" : "bytes", mutable ? PyTypeId.PyByteArrayTypeId : PyTypeId.PyBytesTypeId, true);
+        this.data = data;
+        this.offset = offset;
+        this.size = size;
+        this.mutable = mutable;
+    }
+
+    /**
+     * A bytes object holding the given array, which must not be changed
+     * afterward.
+     */
+    public PyBytes(byte[] data) {
+        this(data, 0, data.length, false);
+    }
+
+    /**
+     * Builds a bytes object, or with mutable set a bytearray, the way the
+     * bytes and bytearray types do from their argument: an int gives that
+     * many zero bytes, and anything else is copied as a buffer or iterated
+     * over for its ints.
+     */
+    public static PyBytes of(PyObject x, boolean mutable) {
+        if (x instanceof PyInt) {
+            int count = ((PyInt) x).getVal();
+
+            if (count < 0) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ValueError: negative count");
+            }
+
+            return new PyBytes(new byte[count], 0, count, mutable);
+        }
+
+        if (x instanceof PyStr) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: string argument without an encoding");
+        }
+
+        if (x instanceof PyBytes && !mutable && !((PyBytes) x).mutable) {
+            return (PyBytes) x;
+        }
+
+        if (x instanceof PyBytes || x instanceof PyMemoryView) {
+            ByteBuffer buffer = readable(x);
+            byte[] copy = new byte[buffer.remaining()];
+            buffer.get(copy);
+
+            return new PyBytes(copy, 0, copy.length, mutable);
+        }
+
+        PyBytes result = new PyBytes(new byte[8], 0, 0, mutable);
+        result.extend(x);
+
+        return result;
+    }
+
+    /**
+     * Encodes the string in the named encoding.
+     */
+    public static PyBytes encode(String s, String encoding) {
+        try {
+            ByteBuffer bytes = charset(encoding).newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .encode(CharBuffer.wrap(s));
+
+            return new PyBytes(bytes.array(), 0, bytes.limit(), false);
+        } catch (CharacterCodingException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "UnicodeEncodeError: '" + encoding + "' codec can't encode the string");
+        }
+    }
+
+    private static Charset charset(String encoding) {
+        try {
+            // Java knows latin-1 as latin1.
+            return Charset.forName(encoding.equalsIgnoreCase("latin-1") ? "latin1" : encoding);
+        } catch (IllegalArgumentException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "LookupError: unknown encoding: " + encoding);
+        }
+    }
+
+    public boolean isMutable() {
+        return this.mutable;
+    }
+
+    public int len() {
+        return this.size;
+    }
+
+    byte[] array() {
+        return this.data;
+    }
+
+    int offset() {
+        return this.offset;
+    }
+
+    public int get(int index) {
+        return this.data[this.offset + index] & 0xff;
+    }
+
+    public void set(int index, PyObject x) {
+        this.data[this.offset + index] = toByte(x);
+    }
+
+    /**
+     * A buffer on the bytes, sharing the array.
+     */
+    public ByteBuffer buffer() {
+        ByteBuffer buffer = ByteBuffer.wrap(this.data, this.offset, this.size).slice();
+
+        return this.mutable ? buffer : buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * A buffer on the contents of a bytes, bytearray, or memoryview object,
+     * sharing its array when it can.
+     */
+    static ByteBuffer readable(PyObject x) {
+        if (x instanceof PyBytes) {
+            return ((PyBytes) x).buffer();
+        }
+
+        if (x instanceof PyMemoryView) {
+            return ((PyMemoryView) x).buffer();
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                "TypeError: a bytes-like object is required, not '" + x.getType().str() + "'");
+    }
+
+    /**
+     * A buffer that writes into a bytearray or a memoryview (without a step)
+     * of one.
+     */
+    static ByteBuffer writable(PyObject x) {
+        if (x instanceof PyBytes && ((PyBytes) x).mutable) {
+            return ((PyBytes) x).buffer();
+        }
+
+        if (x instanceof PyMemoryView && !((PyMemoryView) x).readonly() && ((PyMemoryView) x).contiguous()) {
+            return ((PyMemoryView) x).buffer();
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                "TypeError: argument must be read-write bytes-like object, not " + x.getType().str());
+    }
+
+    static byte toByte(PyObject x) {
+        if (!(x instanceof PyInt)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: an integer is required");
+        }
+
+        int value = ((PyInt) x).getVal();
+
+        if (value < 0 || value > 255) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: byte must be in range(0, 256)");
+        }
+
+        return (byte) value;
+    }
+
+    // Called before a bytearray changes its size.
+    private void resizing(int needed) {
+        if (this.exports > 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "BufferError: Existing exports of data: object cannot be re-sized");
+        }
+
+        if (needed > this.data.length) {
+            this.data = Arrays.copyOf(this.data, PyListStorage.grow(this.data.length, needed));
+        }
+    }
+
+    public void append(PyObject x) {
+        byte b = toByte(x);
+        resizing(this.size + 1);
+        this.data[this.size++] = b;
+    }
+
+    public void extend(PyObject iterable) {
+        if (iterable instanceof PyBytes || iterable instanceof PyMemoryView) {
+            ByteBuffer buffer = readable(iterable);
+            int count = buffer.remaining();
+            resizing(this.size + count);
+            buffer.get(this.data, this.size, count);
+            this.size += count;
+            return;
+        }
+
+        if (iterable instanceof PyStr) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: an integer is required");
+        }
+
+        Iterator<PyObject> items = PyIterables.iterator(iterable);
+
+        while (items.hasNext()) {
+            append(items.next());
+        }
+    }
+
+    public PyBytes slice(PySlice slice) {
+        int[] indices = slice.indices(this.size);
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+
+        if (step == 1 && !this.mutable) {
+            return new PyBytes(this.data, this.offset + start, count, false);
+        }
+
+        byte[] result = new byte[count];
+
+        for (int k = 0; k < count; k++) {
+            result[k] = this.data[this.offset + start + k * step];
+        }
+
+        return new PyBytes(result, 0, count, this.mutable);
+    }
+
+    public PyBytes concat(PyObject other) {
+        ByteBuffer tail = readable(other);
+        byte[] result = Arrays.copyOfRange(this.data, this.offset, this.offset + this.size + tail.remaining());
+        tail.get(result, this.size, tail.remaining());
+
+        return new PyBytes(result, 0, result.length, this.mutable);
+    }
+
+    /**
+     * The index of the first occurrence of sub (a byte value or a bytes-like
+     * object) at or after start, or -1.
+     */
+    public int find(PyObject sub, int start) {
+        byte[] pattern;
+
+        if (sub instanceof PyInt) {
+            pattern = new byte[]{toByte(sub)};
+        } else {
+            ByteBuffer buffer = readable(sub);
+            pattern = new byte[buffer.remaining()];
+            buffer.get(pattern);
+        }
+
+        start = Math.max(start, 0);
+
+        outer:
+        for (int k = start; k + pattern.length <= this.size; k++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (this.data[this.offset + k + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+
+            return k;
+        }
+
+        return -1;
+    }
+
+    public String decode(String encoding) {
+        try {
+            return charset(encoding).newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(buffer()).toString();
+        } catch (CharacterCodingException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "UnicodeDecodeError: '" + encoding + "' codec can't decode the bytes");
+        }
+    }
+
+    public boolean equalTo(PyObject other) {
+        if (!(other instanceof PyBytes || other instanceof PyMemoryView)) {
+            return false;
+        }
+
+        return buffer().equals(readable(other));
+    }
+
+    public int hash() {
+        if (!this.hashed) {
+            int h = 0;
+
+            for (int k = 0; k < this.size; k++) {
+                h = 31 * h + this.data[this.offset + k];
+            }
+
+            this.hash = h;
+            this.hashed = true;
+        }
+
+        return this.hash;
+    }
+
+    /**
+     * The bytes written as Python writes a bytes literal.
+     */
+    static String repr(ByteBuffer bytes) {
+        boolean singles = false;
+        boolean doubles = false;
+
+        for (int k = bytes.position(); k < bytes.limit(); k++) {
+            singles = singles || bytes.get(k) == '\'';
+            doubles = doubles || bytes.get(k) == '"';
+        }
+
+        char quote = singles && !doubles ? '"' : '\'';
+        StringBuilder s = new StringBuilder("b").append(quote);
+
+        for (int k = bytes.position(); k < bytes.limit(); k++) {
+            int b = bytes.get(k) & 0xff;
+
+            if (b == quote || b == '\\') {
+                s.append('\\').append((char) b);
+            } else if (b == '\t') {
+                s.append("\\t");
+            } else if (b == '\n') {
+                s.append("\\n");
+            } else if (b == '\r') {
+                s.append("\\r");
+            } else if (b < ' ' || b >= 0x7f) {
+                s.append("\\x").append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+            } else {
+                s.append((char) b);
+            }
+        }
+
+        return s.append(quote).toString();
+    }
+
+    @Override
+    public String str() {
+        String bytes = repr(buffer());
+
+        return this.mutable ? "bytearray(" + bytes + ")" : bytes;
+    }
+
+    private static int index(PyBytes self, PyObject indexObj) {
+        int index = ((PyInt) indexObj).getVal();
+
+        if (index < 0) {
+            index += self.size;
+        }
+
+        if (index < 0 || index >= self.size) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: index out of range");
+        }
+
+        return index;
+    }
+
+    private static void checkArgs(ArrayList<PyObject> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected " + (min == max ? min : min + " to " + max) + " arguments, got " + args.size());
+        }
+    }
+
+    /**
+     * The methods of bytes.
+     */
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = arrayFuns();
+
+        funs.put("__hash__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyInt(self.hash());
+            }
+        });
+
+        funs.remove("__setitem__");
+        funs.remove("append");
+        funs.remove("extend");
+
+        return funs;
+    }
+
+    /**
+     * The methods of bytearray, which are those of bytes and the ones that
+     * change it.
+     */
+    public static HashMap<String, PyCallable> arrayFuns() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyInt(self.size);
+            }
+        });
+
+        funs.put("__getitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
+                return new PyInt(self.get(index(self, args.get(0))));
+            }
+        });
+
+        funs.put("__setitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 3, 3);
+
+                // The arguments are the value, the index, and self.
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                self.set(index(self, args.get(1)), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyLazyIterator("bytes_iterator", PyTypeId.PyBytesIteratorTypeId,
+                        PyIterables.iterator(self));
+            }
+        });
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyBool(self.find(args.get(0), 0) >= 0);
+            }
+        });
+
+        funs.put("__add__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return self.concat(args.get(0));
+            }
+        });
+
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyBool(self.equalTo(args.get(0)));
+            }
+        });
+
+        funs.put("__ne__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+
+                return new PyBool(!self.equalTo(args.get(0)));
+            }
+        });
+
+        funs.put("find", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 3);
+
+                // The arguments are [start,] sub, and self.
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+                int start = args.size() == 3 ? ((PyInt) args.get(0)).getVal() : 0;
+
+                if (start < 0) {
+                    start += self.size;
+                }
+
+                return new PyInt(self.find(args.get(args.size() - 2), start));
+            }
+        });
+
+        funs.put("decode", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+                String encoding = args.size() == 2 ? args.get(0).str() : "utf-8";
+
+                return new PyStr(self.decode(encoding));
+            }
+        });
+
+        funs.put("hex", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+                StringBuilder s = new StringBuilder(self.size * 2);
+
+                for (int k = 0; k < self.size; k++) {
+                    int b = self.get(k);
+                    s.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+                }
+
+                return new PyStr(s.toString());
+            }
+        });
+
+        funs.put("append", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+                self.append(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("extend", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 2);
+
+                PyBytes self = (PyBytes) args.get(args.size() - 1);
+                self.extend(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        return funs;
+    }
+}
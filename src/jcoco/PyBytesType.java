@@ -0,0 +1,52 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the bytes type, or the bytearray type when mutable is
+ * set. bytes() is empty, bytes(n) is n zero bytes, bytes(s, encoding) is the
+ * string s encoded, and bytes(x) copies the bytes of a bytes-like object x
+ * or the ints of any other iterable.
+ */
+
+public class PyBytesType extends PyType {
+
+    private final boolean mutable;
+
+    public PyBytesType(boolean mutable) {
+        super(mutable ? "bytearray" : "bytes", mutable ? PyType.PyTypeId.PyByteArrayTypeId : PyType.PyTypeId.PyBytesTypeId);
+        this.mutable = mutable;
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+
+        // The arguments are in reverse order.
+        switch (args.size()) {
+            case 0:
+                return PyBytes.of(new PyInt(0), this.mutable);
+            case 1:
+                return PyBytes.of(args.get(0), this.mutable);
+            case 2:
+                if (!(args.get(1) instanceof PyStr)) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "TypeError: encoding without a string argument");
+                }
+
+                PyBytes encoded = PyBytes.encode(args.get(1).str(), args.get(0).str());
+
+                return this.mutable ? PyBytes.of(encoded, true) : encoded;
+            default:
+                throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                        "TypeError: " + str() + " expected at most 2 arguments, got " + args.size());
+        }
+    }
+}
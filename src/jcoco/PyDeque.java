@@ -0,0 +1,484 @@
+/**
+ * PyDeque.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The deque type of the collections module, a double-ended queue. The
+ * elements are kept in a circular array: head is the position of the first
+ * element and the rest follow it, wrapping around to the start of the array.
+ * Adding or removing an element at either end moves head or the size and
+ * nothing else, so append, appendleft, pop, and popleft take constant time
+ * where popping the front of a list copies all the rest. When the array is
+ * full it is doubled, with the elements copied to the front of the new one.
+ *
+ * A deque made with a maxlen never holds more than that many elements:
+ * adding to one end of a full deque drops the element at the other end,
+ * which is what a sliding window wants.
+ *
+ * Like Python's, a deque's iterators raise a RuntimeError if the deque is
+ * changed while they are in use.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyDeque extends PyPrimitiveTypeAdapter {
+
+    private PyObject[] items;
+    private int head;
+    private int size;
+    private final int maxlen;
+    // Counts the changes made, so iterators can tell the deque has changed.
+    private int state;
+
+    /**
+     * Makes an empty deque. A maxlen of -1 means the deque is unbounded.
+     */
+    public PyDeque(int maxlen) {
+        super("deque", PyTypeId.PyDequeTypeId, true);
+        this.items = new PyObject[8];
+        this.maxlen = maxlen;
+    }
+
+    public int len() {
+        return this.size;
+    }
+
+    public int maxlen() {
+        return this.maxlen;
+    }
+
+    // The position in the array of the element at the given index.
+    private int slot(int index) {
+        return (this.head + index) & (this.items.length - 1);
+    }
+
+    private void grow() {
+        PyObject[] bigger = new PyObject[this.items.length * 2];
+        int first = Math.min(this.size, this.items.length - this.head);
+
+        System.arraycopy(this.items, this.head, bigger, 0, first);
+        System.arraycopy(this.items, 0, bigger, first, this.size - first);
+        this.items = bigger;
+        this.head = 0;
+    }
+
+    public PyObject get(int index) {
+        return this.items[slot(index)];
+    }
+
+    public void set(int index, PyObject x) {
+        this.items[slot(index)] = x;
+    }
+
+    public void append(PyObject x) {
+        this.state++;
+
+        if (this.maxlen == 0) {
+            return;
+        }
+
+        if (this.size == this.maxlen) {
+            popleft();
+        } else if (this.size == this.items.length) {
+            grow();
+        }
+
+        this.items[slot(this.size)] = x;
+        this.size++;
+    }
+
+    public void appendleft(PyObject x) {
+        this.state++;
+
+        if (this.maxlen == 0) {
+            return;
+        }
+
+        if (this.size == this.maxlen) {
+            pop();
+        } else if (this.size == this.items.length) {
+            grow();
+        }
+
+        this.head = slot(-1);
+        this.items[this.head] = x;
+        this.size++;
+    }
+
+    public PyObject pop() {
+        if (this.size == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: pop from an empty deque");
+        }
+
+        this.state++;
+        this.size--;
+
+        int last = slot(this.size);
+        PyObject x = this.items[last];
+        this.items[last] = null;
+
+        return x;
+    }
+
+    public PyObject popleft() {
+        if (this.size == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: pop from an empty deque");
+        }
+
+        this.state++;
+
+        PyObject x = this.items[this.head];
+        this.items[this.head] = null;
+        this.head = slot(1);
+        this.size--;
+
+        return x;
+    }
+
+    public void clear() {
+        this.state++;
+        this.items = new PyObject[8];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Moves the last n elements to the front, or with a negative n the first
+     * -n elements to the back.
+     */
+    public void rotate(int n) {
+        if (this.size <= 1) {
+            return;
+        }
+
+        n %= this.size;
+
+        if (n < 0) {
+            n += this.size;
+        }
+
+        this.state++;
+
+        // When the array is full the elements already go round it as a
+        // ring, so only where it starts changes.
+        if (this.size == this.items.length) {
+            this.head = slot(-n);
+            return;
+        }
+
+        // Otherwise the elements are moved one at a time from whichever end
+        // needs fewer of them moved.
+        if (n <= this.size / 2) {
+            for (int k = 0; k < n; k++) {
+                int last = slot(this.size - 1);
+                this.head = slot(-1);
+                this.items[this.head] = this.items[last];
+                this.items[last] = null;
+            }
+        } else {
+            for (int k = n; k < this.size; k++) {
+                this.items[slot(this.size)] = this.items[this.head];
+                this.items[this.head] = null;
+                this.head = slot(1);
+            }
+        }
+    }
+
+    public boolean contains(PyObject x) {
+        for (int k = 0; k < this.size; k++) {
+            if (PyHashTable.keysEqual(x, get(k))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * An iterator over the elements from first to last, or with backward set
+     * from last to first.
+     */
+    public Iterator<PyObject> iterator(final boolean backward) {
+        return new Iterator<PyObject>() {
+            private final int expected = PyDeque.this.state;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (PyDeque.this.state != this.expected) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "RuntimeError: deque mutated during iteration");
+                }
+
+                return this.index < PyDeque.this.size;
+            }
+
+            @Override
+            public PyObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                int k = this.index++;
+
+                return get(backward ? PyDeque.this.size - 1 - k : k);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String str() {
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        StringBuilder s = new StringBuilder("deque([");
+
+        for (int k = 0; k < this.size; k++) {
+            if (k > 0) {
+                s.append(", ");
+            }
+
+            s.append(get(k).callMethod("__repr__", args).str());
+        }
+
+        s.append("]");
+
+        if (this.maxlen >= 0) {
+            s.append(", maxlen=").append(this.maxlen);
+        }
+
+        return s.append(")").toString();
+    }
+
+    private static int index(PyDeque self, PyObject indexObj) {
+        int index = ((PyInt) indexObj).getVal();
+
+        if (index < 0) {
+            index += self.size;
+        }
+
+        if (index < 0 || index >= self.size) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: deque index out of range");
+        }
+
+        return index;
+    }
+
+    // The elements of the iterable, taken before any are added in case a
+    // deque is extended with itself.
+    private static ArrayList<PyObject> elements(PyObject iterable) {
+        ArrayList<PyObject> result = new ArrayList<PyObject>();
+        Iterator<PyObject> items = PyIterables.iterator(iterable);
+
+        while (items.hasNext()) {
+            result.add(items.next());
+        }
+
+        return result;
+    }
+
+    private static void checkArgs(ArrayList<PyObject> args, int count) {
+        if (args.size() != count) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected " + count + " arguments, got " + args.size());
+        }
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return new PyInt(self.size);
+            }
+        });
+
+        funs.put("__bool__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return new PyBool(self.size != 0);
+            }
+        });
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return new PyBool(self.contains(args.get(0)));
+            }
+        });
+
+        funs.put("__getitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return self.get(index(self, args.get(0)));
+            }
+        });
+
+        funs.put("__setitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 3);
+
+                // The arguments are the value, the index, and self.
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                self.set(index(self, args.get(1)), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return new PyLazyIterator("_collections._deque_iterator",
+                        PyTypeId.PyDequeIteratorTypeId, self.iterator(false));
+            }
+        });
+
+        funs.put("append", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                self.append(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("appendleft", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                self.appendleft(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("pop", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return self.pop();
+            }
+        });
+
+        funs.put("popleft", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+
+                return self.popleft();
+            }
+        });
+
+        funs.put("extend", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                ArrayList<PyObject> items = elements(args.get(0));
+
+                for (PyObject x : items) {
+                    self.append(x);
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("extendleft", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                ArrayList<PyObject> items = elements(args.get(0));
+
+                for (PyObject x : items) {
+                    self.appendleft(x);
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("clear", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                self.clear();
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("rotate", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1 && args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 or 2 arguments, got " + args.size());
+                }
+
+                PyDeque self = (PyDeque) args.get(args.size() - 1);
+                self.rotate(args.size() == 2 ? ((PyInt) args.get(0)).getVal() : 1);
+
+                return new PyNone();
+            }
+        });
+
+        return funs;
+    }
+}
@@ -0,0 +1,63 @@
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the deque type of the collections module. deque()
+ * makes an empty deque, deque(iterable) one holding the elements of the
+ * iterable, and deque(iterable, maxlen) one that never holds more than
+ * maxlen elements. A maxlen of None means the deque is unbounded.
+ */
+
+public class PyDequeType extends PyType {
+
+    public PyDequeType() {
+        super("collections.deque", PyType.PyTypeId.PyDequeTypeId);
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() > 2) {
+            throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: deque expected at most 2 arguments, got " + args.size());
+        }
+
+        int maxlen = -1;
+
+        // The arguments are in reverse order, so a maxlen comes first.
+        if (args.size() == 2 && !(args.get(0) instanceof PyNone)) {
+            if (!(args.get(0) instanceof PyInt)) {
+                throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "TypeError: an integer is required");
+            }
+
+            maxlen = ((PyInt) args.get(0)).getVal();
+
+            if (maxlen < 0) {
+                throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ValueError: maxlen must be non-negative");
+            }
+        }
+
+        PyDeque result = new PyDeque(maxlen);
+
+        if (args.size() > 0) {
+            Iterator<PyObject> items = PyIterables.iterator(args.get(args.size() - 1));
+
+            while (items.hasNext()) {
+                result.append(items.next());
+            }
+        }
+
+        return result;
+    }
+}
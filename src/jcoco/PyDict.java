@@ -0,0 +1,320 @@
+/**
+ * PyDict.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The JCoCo implementation of dictionaries. The keys and values are stored in
+ * a PyHashTable which keeps them in insertion order, so iterating over a
+ * dictionary (or its keys, values, or items views) visits the entries in the
+ * order they were added, just as in Python 3.7 and later.
+ *
+ * A dictionary is created by the BUILD_MAP instruction and filled in by the
+ * STORE_MAP and MAP_ADD instructions, or with d[key] = value.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyDict extends PyPrimitiveTypeAdapter {
+
+    private PyHashTable table;
+
+    public PyDict() {
+        this(0);
+    }
+
+    public PyDict(int expected) {
+        super("dict", PyTypeId.PyDictType);
+        initMethods(funs());
+        this.table = new PyHashTable(true, expected);
+    }
+
+    public PyHashTable table() {
+        return this.table;
+    }
+
+    public int len() {
+        return this.table.size();
+    }
+
+    public PyObject getItem(PyObject key) {
+        PyObject value = this.table.get(key);
+
+        if (value == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "KeyError: " + key.callMethod("__repr__", newargs()).str());
+        }
+
+        return value;
+    }
+
+    public void setItem(PyObject key, PyObject value) {
+        this.table.put(key, value);
+    }
+
+    public boolean contains(PyObject key) {
+        return this.table.containsKey(key);
+    }
+
+    @Override
+    public String str() {
+        StringBuilder s = new StringBuilder("{");
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        boolean first = true;
+
+        for (int k = 0; k < this.table.entryLimit(); k++) {
+            PyObject key = this.table.keyAt(k);
+
+            if (key == null) {
+                continue;
+            }
+
+            if (!first) {
+                s.append(", ");
+            }
+            first = false;
+
+            s.append(key.callMethod("__repr__", args).str());
+            s.append(": ");
+            s.append(this.table.valueAt(k).callMethod("__repr__", args).str());
+        }
+
+        s.append("}");
+
+        return s.toString();
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__getitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return self.getItem(args.get(0));
+            }
+        });
+
+        funs.put("__setitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 3) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 3 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+                self.setItem(args.get(1), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__delitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+                PyObject key = args.get(0);
+
+                if (!self.table.remove(key)) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "KeyError: " + key.callMethod("__repr__", newargs()).str());
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyBool(self.contains(args.get(0)));
+            }
+        });
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyInt(self.len());
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyDictIterator(self, PyTypeId.PyDictKeyIteratorType);
+            }
+        });
+
+        funs.put("get", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2 && args.size() != 3) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 or 2 arguments, got " + (args.size() - 1));
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+                PyObject value = self.table.get(args.get(args.size() - 2));
+
+                if (value != null) {
+                    return value;
+                }
+
+                if (args.size() == 3) {
+                    return args.get(0);
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("keys", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyDictView(self, PyTypeId.PyDictKeysType);
+            }
+        });
+
+        funs.put("values", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyDictView(self, PyTypeId.PyDictValuesType);
+            }
+        });
+
+        funs.put("items", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                return new PyDictView(self, PyTypeId.PyDictItemsType);
+            }
+        });
+
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+
+                //We should check the type of args[0] before casting it.
+                if (self.getType().typeId() != args.get(0).getType().typeId()) {
+                    return new PyBool(false);
+                }
+
+                PyDict other = (PyDict) args.get(0);
+
+                if (self.len() != other.len()) {
+                    return new PyBool(false);
+                }
+
+                ArrayList<PyObject> newargs = new ArrayList<PyObject>();
+
+                for (int k = 0; k < self.table.entryLimit(); k++) {
+                    PyObject key = self.table.keyAt(k);
+
+                    if (key == null) {
+                        continue;
+                    }
+
+                    PyObject otherValue = other.table.get(key);
+
+                    if (otherValue == null) {
+                        return new PyBool(false);
+                    }
+
+                    newargs.add(otherValue);
+                    PyBool result = (PyBool) self.table.valueAt(k).callMethod("__eq__", newargs);
+                    newargs.remove(newargs.size() - 1);
+
+                    if (!result.getVal()) {
+                        return result;
+                    }
+                }
+
+                return new PyBool(true);
+            }
+        });
+
+        funs.put("__ne__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDict self = (PyDict) args.get(args.size() - 1);
+                PyBool result = (PyBool) self.callMethod("__eq__", selflessArgs(args));
+
+                return new PyBool(!result.getVal());
+            }
+        });
+
+        return funs;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * PyDictIterator.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Iterates over the keys, values, or items of a dictionary in insertion
+ * order. The kind of iterator is given by its type id. Items are returned as
+ * (key, value) tuples. As in Python, changing the size of the dictionary
+ * while iterating over it is an error.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyDictIterator extends PyPrimitiveTypeAdapter {
+
+    private PyDict dict;
+    private int index = 0;
+    private int size;
+
+    public PyDictIterator(PyDict dict, PyTypeId kind) {
+        super(typeName(kind), kind, true);
+        this.dict = dict;
+        this.size = dict.len();
+    }
+
+    private static String typeName(PyTypeId kind) {
+        switch (kind) {
+            case PyDictValueIteratorType:
+                return "dict_valueiterator";
+            case PyDictItemIteratorType:
+                return "dict_itemiterator";
+            default:
+                return "dict_keyiterator";
+        }
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
+                }
+
+                PyDictIterator self = (PyDictIterator) args.get(args.size() - 1);
+
+                return self;
+            }
+        });
+
+        funs.put("__next__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
+                }
+
+                PyDictIterator self = (PyDictIterator) args.get(args.size() - 1);
+                PyHashTable table = self.dict.table();
+
+                if (table.size() != self.size) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "RuntimeError: dictionary changed size during iteration");
+                }
+
+                while (self.index < table.entryLimit() && table.keyAt(self.index) == null) {
+                    self.index++;
+                }
+
+                if (self.index >= table.entryLimit()) {
+                    throw new PyException(ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
+                }
+
+                int ix = self.index++;
+
+                switch (self.type) {
+                    case PyDictValueIteratorType:
+                        return table.valueAt(ix);
+                    case PyDictItemIteratorType:
+                        ArrayList<PyObject> item = new ArrayList<PyObject>(2);
+                        item.add(table.keyAt(ix));
+                        item.add(table.valueAt(ix));
+                        return new PyTuple(item);
+                    default:
+                        return table.keyAt(ix);
+                }
+            }
+        });
+
+        return funs;
+    }
+}
@@ -0,0 +1,76 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the dict type which is called by writing dict in a
+ * Python program. Called with no arguments it creates an empty dictionary.
+ * Called with a dictionary it makes a copy, and called with any other
+ * iterable it adds each (key, value) pair the iterable produces.
+ */
+
+public class PyDictType extends PyType {
+
+    public PyDictType() {
+        super("dict", PyType.PyTypeId.PyDictType);
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+
+        if (args.size() > 1) {
+            throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected at most 1 argument, got " + args.size());
+        }
+
+        if (args.isEmpty()) {
+            return new PyDict();
+        }
+
+        PyObject arg = args.get(0);
+
+        if (arg instanceof PyDict) {
+            PyHashTable table = ((PyDict) arg).table();
+            PyDict result = new PyDict(table.size());
+
+            for (int k = 0; k < table.entryLimit(); k++) {
+                if (table.keyAt(k) != null) {
+                    result.table().put(table.keyAt(k), table.hashAt(k), table.valueAt(k));
+                }
+            }
+
+            return result;
+        }
+
+        PyDict result = new PyDict();
+        PyObject it = arg.callMethod("__iter__", new ArrayList<PyObject>());
+        ArrayList<PyObject> noargs = new ArrayList<PyObject>();
+
+        while (true) {
+            PyObject item;
+
+            try {
+                item = it.callMethod("__next__", noargs);
+            } catch (PyException e) {
+                if (e.getExceptionType() == PyException.ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                    return result;
+                }
+                throw e;
+            }
+
+            if (!(item instanceof PyTuple) || ((PyTuple) item).size() != 2) {
+                throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "ValueError: dictionary update sequence element has wrong length; 2 is required");
+            }
+
+            PyTuple pair = (PyTuple) item;
+            result.setItem(pair.getVal(0), pair.getVal(1));
+        }
+    }
+}
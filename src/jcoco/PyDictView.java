@@ -0,0 +1,169 @@
+/**
+ * PyDictView.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The objects returned by the keys, values, and items methods of a
+ * dictionary. A view does not copy the dictionary. It reflects any later
+ * changes to it and iterates directly over its entries.
+ * >>> d = {'a':1}
+ * >>> d.keys()
+ * dict_keys(['a'])
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyDictView extends PyPrimitiveTypeAdapter {
+
+    private PyDict dict;
+
+    public PyDictView(PyDict dict, PyTypeId kind) {
+        super(typeName(kind), kind);
+        this.dict = dict;
+        initMethods(funs());
+    }
+
+    private static String typeName(PyTypeId kind) {
+        switch (kind) {
+            case PyDictValuesType:
+                return "dict_values";
+            case PyDictItemsType:
+                return "dict_items";
+            default:
+                return "dict_keys";
+        }
+    }
+
+    private PyTypeId iteratorType() {
+        switch (this.type) {
+            case PyDictValuesType:
+                return PyTypeId.PyDictValueIteratorType;
+            case PyDictItemsType:
+                return PyTypeId.PyDictItemIteratorType;
+            default:
+                return PyTypeId.PyDictKeyIteratorType;
+        }
+    }
+
+    @Override
+    public String str() {
+        StringBuilder s = new StringBuilder(this.name);
+        PyObject it = new PyDictIterator(this.dict, iteratorType());
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        boolean first = true;
+
+        s.append("([");
+
+        try {
+            while (true) {
+                PyObject item = it.callMethod("__next__", args);
+
+                if (!first) {
+                    s.append(", ");
+                }
+                first = false;
+
+                s.append(item.callMethod("__repr__", args).str());
+            }
+        } catch (PyException e) {
+            if (e.getExceptionType() != ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                throw e;
+            }
+        }
+
+        s.append("])");
+
+        return s.toString();
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyDictView self = (PyDictView) args.get(args.size() - 1);
+
+                return new PyDictIterator(self.dict, self.iteratorType());
+            }
+        });
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyDictView self = (PyDictView) args.get(args.size() - 1);
+
+                return new PyInt(self.dict.len());
+            }
+        });
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyDictView self = (PyDictView) args.get(args.size() - 1);
+                PyObject x = args.get(0);
+                PyHashTable table = self.dict.table();
+
+                if (self.type == PyTypeId.PyDictKeysType) {
+                    return new PyBool(table.containsKey(x));
+                }
+
+                if (self.type == PyTypeId.PyDictItemsType) {
+                    if (!(x instanceof PyTuple) || ((PyTuple) x).size() != 2) {
+                        return new PyBool(false);
+                    }
+
+                    PyTuple item = (PyTuple) x;
+                    PyObject value = table.get(item.getVal(0));
+
+                    if (value == null) {
+                        return new PyBool(false);
+                    }
+
+                    ArrayList<PyObject> eqargs = new ArrayList<PyObject>();
+                    eqargs.add(item.getVal(1));
+
+                    return value.callMethod("__eq__", eqargs);
+                }
+
+                ArrayList<PyObject> eqargs = new ArrayList<PyObject>();
+                eqargs.add(x);
+
+                for (int k = 0; k < table.entryLimit(); k++) {
+                    if (table.keyAt(k) != null
+                            && ((PyBool) table.valueAt(k).callMethod("__eq__", eqargs)).getVal()) {
+                        return new PyBool(true);
+                    }
+                }
+
+                return new PyBool(false);
+            }
+        });
+
+        return funs;
+    }
+}
@@ -13,11 +13,19 @@ package jcoco;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.io.PrintWriter;
-import java.io.BufferedInputStream;
-import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  *
@@ -25,21 +33,63 @@ import java.io.File;
  */
 public class PyFile extends PyPrimitiveTypeAdapter {
 
-    protected Scanner scanin = null;
+    protected PyTextReader reader = null;
     protected PrintWriter scanout = null;
     protected String filename;
+    protected String mode;
     protected boolean open = true;
+    // Files opened in mode 'rb', 'wb', or 'ab' are read or written through
+    // a channel instead.
+    protected FileChannel channel = null;
+    protected boolean writable = false;
+    // Bytes written to a file opened in mode 'wb' or 'ab' wait here until
+    // there are enough of them to be worth a write to the channel.
+    protected ByteBuffer pending = null;
+
+    // The size of the buffer of a file opened for writing.
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The files opened for writing that have not been closed. Whatever is
+    // waiting in their buffers is written out when the program ends. Files
+    // are not hashable, so the set goes by identity.
+    private static final Set<PyFile> unclosed = Collections.newSetFromMap(new IdentityHashMap<PyFile, Boolean>());
 
     public PyFile(String filename, String mode) {
         super("file",PyType.PyTypeId.PyFileType);
         initMethods(funs());
         this.filename = filename;
+        this.mode = mode;
+
+        if (!(mode.equals("r") || mode.equals("rm") || mode.equals("rb") || mode.equals("w")
+                || mode.equals("a") || mode.equals("wb") || mode.equals("ab"))) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: invalid mode: '" + mode + "'");
+        }
 
         try {
             if (mode.equals("r")) {
-                scanin = new Scanner(new File(filename));
+                reader = new PyLineReader(FileChannel.open(Paths.get(filename), StandardOpenOption.READ),
+                        Charset.defaultCharset());
+            } else if (mode.equals("rm")) {
+                reader = new PyMappedReader(FileChannel.open(Paths.get(filename), StandardOpenOption.READ),
+                        Charset.defaultCharset());
+            } else if (mode.equals("rb")) {
+                channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            } else if (mode.equals("wb") || mode.equals("ab")) {
+                channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        mode.equals("ab") ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+                writable = true;
+                pending = ByteBuffer.allocate(BUFFER_SIZE);
+                unclosed.add(this);
             } else {
-                scanout = new PrintWriter(filename);
+                // Text is encoded into a buffer of BUFFER_SIZE bytes, which
+                // is written to the channel only when it fills up or the
+                // file is flushed or closed.
+                FileChannel out = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE,
+                        mode.equals("a") ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+                scanout = new PrintWriter(Channels.newWriter(out, Charset.defaultCharset().newEncoder(), BUFFER_SIZE));
+                unclosed.add(this);
             }
         } catch (Exception ex) {
             throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -47,49 +97,256 @@ public class PyFile extends PyPrimitiveTypeAdapter {
         }
     }
 
-    public PyFile(Scanner in) {
+    public PyFile(PyTextReader in) {
         super("file",PyType.PyTypeId.PyFileType);
         initMethods(funs());
         this.filename = "<stdin>";
-        scanin = in;
+        this.mode = "r";
+        reader = in;
     }
 
     public PyFile(PrintWriter out) {
         super("file",PyType.PyTypeId.PyFileType);
         initMethods(funs());
         this.filename = "<stdout>";
+        this.mode = "w";
         scanout = out;
     }
 
     @Override
     public String str() {
         String result = "";
-        if (scanout == null) {
-            result = "<_io.TextIOWrapper  name ='" + filename + "' mode = 'r' encoding ='UTF-8'>";
+        if (channel != null) {
+            result = "<_io." + (writable ? "BufferedWriter" : "BufferedReader") + " name='" + filename + "'>";
         } else {
-            result = "<_io.TextIOWrapper  name ='" + filename + "' mode = 'w' encoding ='UTF-8'>";
+            result = "<_io.TextIOWrapper  name ='" + filename + "' mode = '" + mode + "' encoding ='UTF-8'>";
         }
 
         return result;
     }
 
-    public PyObject readline() {
-        if (scanin == null) {
+    /**
+     * The channel of a file opened in binary mode, for reading or for
+     * writing as asked. Any bytes waiting in the file's buffer are written
+     * first, so the channel can be written to directly.
+     */
+    public FileChannel channel(boolean write) {
+        checkChannel(write);
+
+        if (write) {
+            drain();
+        }
+
+        return channel;
+    }
+
+    private void checkChannel(boolean write) {
+        if (!open) {
             throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                    "io.UnsupportedOperation: not readable");
+                    "ValueError: I/O operation on closed file.");
+        }
+
+        if (channel == null) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "io.UnsupportedOperation: '" + filename + "' is not open in binary mode");
+        }
+
+        if (write != writable) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "io.UnsupportedOperation: " + (write ? "write" : "read"));
+        }
+    }
+
+    // Writes the bytes waiting in the buffer of a file opened for writing
+    // bytes.
+    private void drain() {
+        if (pending == null || pending.position() == 0) {
+            return;
+        }
+
+        pending.flip();
+
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } catch (IOException ex) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        } finally {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Writes out whatever is waiting in the file's buffer.
+     */
+    public void flush() {
+        if (scanout != null) {
+            scanout.flush();
+
+            // A PrintWriter keeps its IOExceptions to itself.
+            if (scanout.checkError()) {
+                throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "OSError: could not write to '" + filename + "'");
+            }
+        }
+
+        drain();
+    }
+
+    public void close() {
+        if (!open) {
+            return;
         }
 
-        String s = "";
+        open = false;
+        unclosed.remove(this);
 
         try {
-            s = scanin.nextLine() + "\n";
-            
-        } catch (java.util.NoSuchElementException ex) {
-            s = "";
+            if (reader != null) {
+                reader.close();
+            } else if (channel != null) {
+                try {
+                    drain();
+                } finally {
+                    channel.close();
+                }
+            } else {
+                scanout.close();
+
+                // A PrintWriter keeps its IOExceptions to itself, including
+                // those from writing what was still in its buffer.
+                if (scanout.checkError()) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "OSError: could not write to '" + filename + "'");
+                }
+            }
+        } catch (IOException ex) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "OSError: " + ex.getMessage());
         }
+    }
 
-        return new PyStr(s);
+    /**
+     * Flushes every file that is still open for writing. This is called
+     * when the program ends.
+     */
+    public static void flushAll() {
+        for (PyFile file : new ArrayList<PyFile>(unclosed)) {
+            try {
+                file.flush();
+            } catch (PyException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads count bytes, or fewer if the file ends first, from a file opened
+     * in mode 'rb'. A negative count reads the rest of the file.
+     */
+    public PyBytes readBytes(int count) {
+        FileChannel in = channel(false);
+
+        try {
+            if (count < 0) {
+                count = (int) Math.min(Math.max(in.size() - in.position(), 0), Integer.MAX_VALUE - 8);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(count);
+
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+            }
+
+            return new PyBytes(buffer.array(), 0, buffer.position(), false);
+        } catch (IOException ex) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads from a file opened in mode 'rb' straight into a bytearray or
+     * memoryview, returning the number of bytes read.
+     */
+    public int readInto(PyObject b) {
+        ByteBuffer buffer = PyBytes.writable(b);
+        FileChannel in = channel(false);
+
+        try {
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+            }
+        } catch (IOException ex) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+
+        return buffer.position();
+    }
+
+    /**
+     * Writes a bytes-like object to a file opened in mode 'wb' or 'ab',
+     * returning the number of bytes written.
+     */
+    public int writeBytes(PyObject b) {
+        ByteBuffer buffer = PyBytes.readable(b);
+        int count = buffer.remaining();
+        checkChannel(true);
+
+        if (count > pending.remaining()) {
+            drain();
+        }
+
+        if (count < pending.capacity()) {
+            pending.put(buffer);
+            return count;
+        }
+
+        // Something at least as big as the buffer is written directly.
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes a str to a file opened for writing text, returning its length.
+     */
+    public int write(PyObject x) {
+        if (channel != null) {
+            return writeBytes(x);
+        }
+
+        if (scanout == null) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "io.UnsupportedOperation: not writable");
+        }
+
+        if (!(x instanceof PyStr)) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: write() argument must be str, not " + x.getType().str());
+        }
+
+        String s = x.str();
+        scanout.write(s);
+
+        return s.length();
+    }
+
+    private PyTextReader reader() {
+        if (reader == null) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "io.UnsupportedOperation: not readable");
+        }
 
+        return reader;
+    }
+
+    public PyObject readline() {
+        return new PyStr(reader().readLine());
     }
     
     public static HashMap<String, PyCallable> funs() {
@@ -133,19 +390,96 @@ public class PyFile extends PyPrimitiveTypeAdapter {
                             "ValueError: I/O operation on closed file.");
                 }
 
-                if (self.scanout == null) {
+                return new PyInt(self.write(args.get(0)));
+            }
+
+        });
+
+        funs.put("writelines", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PyFile self = (PyFile) args.get(args.size() - 1);
+
+                if (!self.open) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "io.UnsupportedOperation: not writable");
+                            "ValueError: I/O operation on closed file.");
+                }
+
+                Iterator<PyObject> lines = PyIterables.iterator(args.get(0));
+
+                while (lines.hasNext()) {
+                    self.write(lines.next());
+                }
+
+                return new PyNone();
+            }
+
+        });
+
+        funs.put("read", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1 && args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 or 1 arguments, got " + (args.size() - 1));
+                }
+
+                PyFile self = (PyFile) args.get(args.size() - 1);
+                int count = args.size() == 2 && !(args.get(0) instanceof PyNone) ? ((PyInt) args.get(0)).getVal() : -1;
+
+                if (!self.open) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "ValueError: I/O operation on closed file.");
+                }
+
+                if (self.channel == null) {
+                    return new PyStr(self.reader().read(count));
+                }
+
+                return self.readBytes(count);
+            }
+        });
+
+        funs.put("readlines", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyStr str = (PyStr) args.get(0);
+                PyFile self = (PyFile) args.get(args.size() - 1);
 
-                self.scanout.write(str.str());
-                self.scanout.flush();
+                if (!self.open) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "ValueError: I/O operation on closed file.");
+                }
 
-                return new PyInt(str.str().length());
+                return new PyList(self.reader().readLines());
             }
+        });
+
+        funs.put("readinto", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
 
+                PyFile self = (PyFile) args.get(args.size() - 1);
+
+                return new PyInt(self.readInto(args.get(0)));
+            }
         });
 
         funs.put("__iter__", new PyCallableAdapter() {
@@ -174,12 +508,12 @@ public class PyFile extends PyPrimitiveTypeAdapter {
 
                 PyFile self = (PyFile) args.get(args.size() - 1);
 
-                if (self.scanin == null) {
+                if (!self.open) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "io.UnsupportedOperation: not readable");
+                            "ValueError: I/O operation on closed file.");
                 }
 
-                if (!self.scanin.hasNextLine()) {
+                if (self.reader().atEnd()) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
                 }
 
@@ -187,7 +521,7 @@ public class PyFile extends PyPrimitiveTypeAdapter {
             }
         });
 
-        funs.put("close", new PyCallableAdapter() {
+        funs.put("flush", new PyCallableAdapter() {
             @Override
             public PyObject __call__(ArrayList<PyObject> args) {
 
@@ -199,17 +533,28 @@ public class PyFile extends PyPrimitiveTypeAdapter {
                 PyFile self = (PyFile) args.get(args.size() - 1);
 
                 if (!self.open) {
-                    return new PyNone();
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "ValueError: I/O operation on closed file.");
                 }
 
-                self.open = false;
+                self.flush();
 
-                if (self.scanin != null) {
-                    self.scanin.close();
-                } else {
-                    self.scanout.close();
+                return new PyNone();
+            }
+        });
+
+        funs.put("close", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
                 }
 
+                PyFile self = (PyFile) args.get(args.size() - 1);
+                self.close();
+
                 return new PyNone();
             }
         });
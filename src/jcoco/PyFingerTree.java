@@ -0,0 +1,521 @@
+/**
+ * PyFingerTree.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The immutable sequence behind PyFunList. It is a 2-3 finger tree annotated
+ * with sizes (Hinze and Paterson, "Finger trees: a simple general-purpose
+ * data structure", 2006). A tree is empty, a single element, or "deep": one
+ * to four elements at each end (the digits) and, in the middle, a finger tree
+ * of 2-3 nodes that each group two or three elements of the level above.
+ *
+ * Adding or removing an element at either end takes amortized constant time,
+ * finding the element at an index takes O(log n) time (the sizes say which
+ * way to go), and two trees are concatenated in O(log n) time. Operations
+ * never change a tree. They build a new one that shares everything it can
+ * with the old, so the tail of a funlist is a new tree that shares all but
+ * the first digit of the original. A tree is split at an index in O(log n)
+ * time as well, which is how a funlist is sliced without copying it.
+ *
+ * The elements of the top level are PyObjects. The elements of the middle
+ * trees are Nodes.
+ */
+package jcoco;
+
+import java.util.Arrays;
+
+abstract class PyFingerTree {
+
+    public static final PyFingerTree EMPTY = new Empty();
+
+    static final class Node {
+
+        final Object[] items;
+        final int size;
+
+        Node(Object a, Object b) {
+            this.items = new Object[]{a, b};
+            this.size = sizeOf(a) + sizeOf(b);
+        }
+
+        Node(Object a, Object b, Object c) {
+            this.items = new Object[]{a, b, c};
+            this.size = sizeOf(a) + sizeOf(b) + sizeOf(c);
+        }
+    }
+
+    static int sizeOf(Object x) {
+        return x instanceof Node ? ((Node) x).size : 1;
+    }
+
+    static int sizeOf(Object[] digit) {
+        int size = 0;
+
+        for (int k = 0; k < digit.length; k++) {
+            size += sizeOf(digit[k]);
+        }
+
+        return size;
+    }
+
+    // Descends through nodes to the PyObject at the index.
+    static PyObject lookupIn(Object x, int index) {
+        while (x instanceof Node) {
+            Object[] items = ((Node) x).items;
+            int k = 0;
+
+            while (index >= sizeOf(items[k])) {
+                index -= sizeOf(items[k]);
+                k++;
+            }
+
+            x = items[k];
+        }
+
+        return (PyObject) x;
+    }
+
+    // The position in the digit of the element that holds the index.
+    static int digitIndex(Object[] digit, int index) {
+        int k = 0;
+
+        while (index >= sizeOf(digit[k])) {
+            index -= sizeOf(digit[k]);
+            k++;
+        }
+
+        return k;
+    }
+
+    static PyObject lookupIn(Object[] digit, int index) {
+        int k = digitIndex(digit, index);
+
+        for (int j = 0; j < k; j++) {
+            index -= sizeOf(digit[j]);
+        }
+
+        return lookupIn(digit[k], index);
+    }
+
+    // A tree split around one of its elements: left holds the elements
+    // before it and right the elements after it.
+    static final class Split {
+
+        final PyFingerTree left;
+        final Object item;
+        final PyFingerTree right;
+
+        Split(PyFingerTree left, Object item, PyFingerTree right) {
+            this.left = left;
+            this.item = item;
+            this.right = right;
+        }
+    }
+
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public abstract PyFingerTree consLeft(Object x);
+
+    public abstract PyFingerTree consRight(Object x);
+
+    // The first element of the tree (a PyObject at the top level).
+    public abstract Object headLeft();
+
+    // The tree without its first element.
+    public abstract PyFingerTree tailLeft();
+
+    // The last element of the tree.
+    public abstract Object headRight();
+
+    // The tree without its last element.
+    public abstract PyFingerTree tailRight();
+
+    public abstract PyObject get(int index);
+
+    // Splits a nonempty tree around the element that holds the index.
+    abstract Split split(int index);
+
+    // The first count elements of the tree.
+    public PyFingerTree take(int count) {
+        if (count <= 0) {
+            return EMPTY;
+        }
+
+        if (count >= size()) {
+            return this;
+        }
+
+        return split(count).left;
+    }
+
+    // The tree without its first count elements.
+    public PyFingerTree drop(int count) {
+        if (count <= 0) {
+            return this;
+        }
+
+        if (count >= size()) {
+            return EMPTY;
+        }
+
+        Split parts = split(count);
+
+        return parts.right.consLeft(parts.item);
+    }
+
+    public PyFingerTree concat(PyFingerTree other) {
+        return append3(this, new Object[0], other);
+    }
+
+    private static PyFingerTree fromDigit(Object[] digit) {
+        PyFingerTree tree = EMPTY;
+
+        for (int k = 0; k < digit.length; k++) {
+            tree = tree.consRight(digit[k]);
+        }
+
+        return tree;
+    }
+
+    // Builds a tree from a prefix that may be empty.
+    private static PyFingerTree deepLeft(Object[] prefix, PyFingerTree middle, Object[] suffix) {
+        if (prefix.length > 0) {
+            return new Deep(sizeOf(prefix) + middle.size() + sizeOf(suffix), prefix, middle, suffix);
+        }
+
+        if (middle.isEmpty()) {
+            return fromDigit(suffix);
+        }
+
+        Node node = (Node) middle.headLeft();
+
+        return new Deep(middle.size() + sizeOf(suffix), node.items, middle.tailLeft(), suffix);
+    }
+
+    // Builds a tree from a suffix that may be empty.
+    private static PyFingerTree deepRight(Object[] prefix, PyFingerTree middle, Object[] suffix) {
+        if (suffix.length > 0) {
+            return new Deep(sizeOf(prefix) + middle.size() + sizeOf(suffix), prefix, middle, suffix);
+        }
+
+        if (middle.isEmpty()) {
+            return fromDigit(prefix);
+        }
+
+        Node node = (Node) middle.headRight();
+
+        return new Deep(sizeOf(prefix) + middle.size(), prefix, middle.tailRight(), node.items);
+    }
+
+    // Concatenates left, the loose elements in middle, and right.
+    private static PyFingerTree append3(PyFingerTree left, Object[] middle, PyFingerTree right) {
+        if (left instanceof Empty) {
+            for (int k = middle.length - 1; k >= 0; k--) {
+                right = right.consLeft(middle[k]);
+            }
+            return right;
+        }
+
+        if (right instanceof Empty) {
+            for (int k = 0; k < middle.length; k++) {
+                left = left.consRight(middle[k]);
+            }
+            return left;
+        }
+
+        if (left instanceof Single) {
+            return append3(EMPTY, middle, right).consLeft(((Single) left).item);
+        }
+
+        if (right instanceof Single) {
+            return append3(left, middle, EMPTY).consRight(((Single) right).item);
+        }
+
+        Deep l = (Deep) left;
+        Deep r = (Deep) right;
+        Object[] loose = new Object[l.suffix.length + middle.length + r.prefix.length];
+        System.arraycopy(l.suffix, 0, loose, 0, l.suffix.length);
+        System.arraycopy(middle, 0, loose, l.suffix.length, middle.length);
+        System.arraycopy(r.prefix, 0, loose, l.suffix.length + middle.length, r.prefix.length);
+
+        return new Deep(l.size + sizeOf(middle) + r.size,
+                l.prefix, append3(l.middle, nodes(loose), r.middle), r.suffix);
+    }
+
+    // Groups between 2 and 12 elements into nodes of two or three.
+    private static Object[] nodes(Object[] xs) {
+        int n = xs.length;
+        Object[] result = new Object[(n + 2) / 3];
+        int count = 0;
+        int k = 0;
+
+        while (n - k > 4 || n - k == 3) {
+            result[count++] = new Node(xs[k], xs[k + 1], xs[k + 2]);
+            k += 3;
+        }
+
+        while (k < n) {
+            result[count++] = new Node(xs[k], xs[k + 1]);
+            k += 2;
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    static final class Empty extends PyFingerTree {
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public PyFingerTree consLeft(Object x) {
+            return new Single(x);
+        }
+
+        @Override
+        public PyFingerTree consRight(Object x) {
+            return new Single(x);
+        }
+
+        @Override
+        public Object headLeft() {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to get head of empty funlist");
+        }
+
+        @Override
+        public PyFingerTree tailLeft() {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to get tail of empty funlist");
+        }
+
+        @Override
+        public Object headRight() {
+            return headLeft();
+        }
+
+        @Override
+        public PyFingerTree tailRight() {
+            return tailLeft();
+        }
+
+        @Override
+        public PyObject get(int index) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to index into an empty funlist.");
+        }
+
+        @Override
+        Split split(int index) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to index into an empty funlist.");
+        }
+    }
+
+    static final class Single extends PyFingerTree {
+
+        private final Object item;
+
+        Single(Object item) {
+            this.item = item;
+        }
+
+        @Override
+        public int size() {
+            return sizeOf(this.item);
+        }
+
+        @Override
+        public PyFingerTree consLeft(Object x) {
+            return new Deep(sizeOf(x) + size(), new Object[]{x}, EMPTY, new Object[]{this.item});
+        }
+
+        @Override
+        public PyFingerTree consRight(Object x) {
+            return new Deep(size() + sizeOf(x), new Object[]{this.item}, EMPTY, new Object[]{x});
+        }
+
+        @Override
+        public Object headLeft() {
+            return this.item;
+        }
+
+        @Override
+        public PyFingerTree tailLeft() {
+            return EMPTY;
+        }
+
+        @Override
+        public Object headRight() {
+            return this.item;
+        }
+
+        @Override
+        public PyFingerTree tailRight() {
+            return EMPTY;
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return lookupIn(this.item, index);
+        }
+
+        @Override
+        Split split(int index) {
+            return new Split(EMPTY, this.item, EMPTY);
+        }
+    }
+
+    static final class Deep extends PyFingerTree {
+
+        private final int size;
+        private final Object[] prefix;
+        private final PyFingerTree middle;
+        private final Object[] suffix;
+
+        Deep(int size, Object[] prefix, PyFingerTree middle, Object[] suffix) {
+            this.size = size;
+            this.prefix = prefix;
+            this.middle = middle;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public PyFingerTree consLeft(Object x) {
+            int newSize = this.size + sizeOf(x);
+
+            if (this.prefix.length == 4) {
+                Node node = new Node(this.prefix[1], this.prefix[2], this.prefix[3]);
+                return new Deep(newSize, new Object[]{x, this.prefix[0]}, this.middle.consLeft(node), this.suffix);
+            }
+
+            Object[] newPrefix = new Object[this.prefix.length + 1];
+            newPrefix[0] = x;
+            System.arraycopy(this.prefix, 0, newPrefix, 1, this.prefix.length);
+
+            return new Deep(newSize, newPrefix, this.middle, this.suffix);
+        }
+
+        @Override
+        public PyFingerTree consRight(Object x) {
+            int newSize = this.size + sizeOf(x);
+
+            if (this.suffix.length == 4) {
+                Node node = new Node(this.suffix[0], this.suffix[1], this.suffix[2]);
+                return new Deep(newSize, this.prefix, this.middle.consRight(node), new Object[]{this.suffix[3], x});
+            }
+
+            Object[] newSuffix = Arrays.copyOf(this.suffix, this.suffix.length + 1);
+            newSuffix[this.suffix.length] = x;
+
+            return new Deep(newSize, this.prefix, this.middle, newSuffix);
+        }
+
+        @Override
+        public Object headLeft() {
+            return this.prefix[0];
+        }
+
+        @Override
+        public PyFingerTree tailLeft() {
+            int newSize = this.size - sizeOf(this.prefix[0]);
+
+            if (this.prefix.length > 1) {
+                return new Deep(newSize, Arrays.copyOfRange(this.prefix, 1, this.prefix.length), this.middle, this.suffix);
+            }
+
+            if (this.middle.isEmpty()) {
+                return fromDigit(this.suffix);
+            }
+
+            // Borrow the first node of the middle tree as the new prefix.
+            Node node = (Node) this.middle.headLeft();
+
+            return new Deep(newSize, node.items, this.middle.tailLeft(), this.suffix);
+        }
+
+        @Override
+        public Object headRight() {
+            return this.suffix[this.suffix.length - 1];
+        }
+
+        @Override
+        public PyFingerTree tailRight() {
+            int newSize = this.size - sizeOf(this.suffix[this.suffix.length - 1]);
+
+            if (this.suffix.length > 1) {
+                return new Deep(newSize, this.prefix, this.middle, Arrays.copyOf(this.suffix, this.suffix.length - 1));
+            }
+
+            if (this.middle.isEmpty()) {
+                return fromDigit(this.prefix);
+            }
+
+            // Borrow the last node of the middle tree as the new suffix.
+            Node node = (Node) this.middle.headRight();
+
+            return new Deep(newSize, this.prefix, this.middle.tailRight(), node.items);
+        }
+
+        @Override
+        Split split(int index) {
+            int prefixSize = sizeOf(this.prefix);
+
+            if (index < prefixSize) {
+                int k = digitIndex(this.prefix, index);
+
+                return new Split(fromDigit(Arrays.copyOfRange(this.prefix, 0, k)), this.prefix[k],
+                        deepLeft(Arrays.copyOfRange(this.prefix, k + 1, this.prefix.length), this.middle, this.suffix));
+            }
+
+            int middleSize = this.middle.size();
+
+            if (index < prefixSize + middleSize) {
+                Split parts = this.middle.split(index - prefixSize);
+                Object[] items = ((Node) parts.item).items;
+                int k = digitIndex(items, index - prefixSize - parts.left.size());
+
+                return new Split(deepRight(this.prefix, parts.left, Arrays.copyOfRange(items, 0, k)), items[k],
+                        deepLeft(Arrays.copyOfRange(items, k + 1, items.length), parts.right, this.suffix));
+            }
+
+            int k = digitIndex(this.suffix, index - prefixSize - middleSize);
+
+            return new Split(deepRight(this.prefix, this.middle, Arrays.copyOfRange(this.suffix, 0, k)), this.suffix[k],
+                    fromDigit(Arrays.copyOfRange(this.suffix, k + 1, this.suffix.length)));
+        }
+
+        @Override
+        public PyObject get(int index) {
+            int prefixSize = sizeOf(this.prefix);
+
+            if (index < prefixSize) {
+                return lookupIn(this.prefix, index);
+            }
+
+            index -= prefixSize;
+
+            if (index < this.middle.size()) {
+                return this.middle.get(index);
+            }
+
+            return lookupIn(this.suffix, index - this.middle.size());
+        }
+    }
+}
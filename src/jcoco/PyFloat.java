@@ -13,8 +13,6 @@
  */
 package jcoco;
 
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import jcoco.PyType.PyTypeId;
@@ -25,11 +23,9 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
     private PyFloat self;
 
     public PyFloat(double fVal) {
-        super("float",PyTypeId.PyFloatType);
+        super("float", PyTypeId.PyFloatType, true);
         self = this;
         this.val = fVal;
-        initMethods(funs());
-
     }
 
     public double getVal() {
@@ -38,9 +34,7 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
 
     @Override
     public String str() {
-        DecimalFormat df = new DecimalFormat("#.0###############");
-        //df.setRoundingMode(RoundingMode.HALF_UP);
-        return df.format(this.val);
+        return PyFloatFormatter.format(this.val);
     }
 
     public static HashMap<String, PyCallable> funs() {
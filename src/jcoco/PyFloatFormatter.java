@@ -0,0 +1,328 @@
+/**
+ * PyFloatFormatter.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * This class converts doubles to the shortest decimal string that reads back
+ * as exactly the same double. It is used by PyFloat for str, repr, and print.
+ * The digits are computed with the Ryu algorithm (Ulf Adams, 2018), which
+ * uses only 64-bit integer arithmetic and a table of powers of 5 built once
+ * when the class is loaded. No intermediate objects are created per call, so
+ * unlike java.text.DecimalFormat it is both fast and safe to share.
+ *
+ * The digits are then laid out the way Python's repr lays out floats. Fixed
+ * notation is used when the decimal exponent is in [-4, 16) and scientific
+ * notation (like 1e+16 or 2.5e-07) otherwise.
+ */
+package jcoco;
+
+import java.math.BigInteger;
+
+final class PyFloatFormatter {
+
+    private static final int DOUBLE_MANTISSA_BITS = 52;
+    private static final long DOUBLE_MANTISSA_MASK = (1L << DOUBLE_MANTISSA_BITS) - 1;
+    private static final int DOUBLE_EXPONENT_BITS = 11;
+    private static final int DOUBLE_EXPONENT_MASK = (1 << DOUBLE_EXPONENT_BITS) - 1;
+    private static final int DOUBLE_EXPONENT_BIAS = (1 << (DOUBLE_EXPONENT_BITS - 1)) - 1;
+
+    private static final int POS_TABLE_SIZE = 326;
+    private static final int NEG_TABLE_SIZE = 291;
+
+    // The powers of 5 (and their inverses) are stored with their top 121
+    // (122) bits split into four 31-bit pieces so that a 55-bit mantissa can
+    // be multiplied by them using only long arithmetic.
+    private static final int POW5_BITCOUNT = 121;
+    private static final int POW5_INV_BITCOUNT = 122;
+    private static final int QUARTER_BITCOUNT = 31;
+    private static final int[][] POW5_SPLIT = new int[POS_TABLE_SIZE][4];
+    private static final int[][] POW5_INV_SPLIT = new int[NEG_TABLE_SIZE][4];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(QUARTER_BITCOUNT).subtract(BigInteger.ONE);
+
+        for (int i = 0; i < POS_TABLE_SIZE; i++) {
+            BigInteger pow = BigInteger.valueOf(5).pow(i);
+            int pow5len = pow.bitLength();
+
+            for (int j = 0; j < 4; j++) {
+                POW5_SPLIT[i][j] = pow.shiftRight(pow5len - POW5_BITCOUNT + (3 - j) * QUARTER_BITCOUNT)
+                        .and(mask).intValue();
+            }
+
+            if (i < NEG_TABLE_SIZE) {
+                int j = pow5len - 1 + POW5_INV_BITCOUNT;
+                BigInteger inv = BigInteger.ONE.shiftLeft(j).divide(pow).add(BigInteger.ONE);
+
+                for (int k = 0; k < 4; k++) {
+                    BigInteger piece = inv.shiftRight((3 - k) * QUARTER_BITCOUNT);
+                    if (k != 0) {
+                        piece = piece.and(mask);
+                    }
+                    POW5_INV_SPLIT[i][k] = piece.intValue();
+                }
+            }
+        }
+    }
+
+    private PyFloatFormatter() {
+    }
+
+    /**
+     * Returns the Python repr of a double: the shortest string of digits
+     * that uniquely identifies the value.
+     *
+     * @param value the double to format
+     * @return the formatted string
+     */
+    public static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "nan";
+        }
+
+        if (value == Double.POSITIVE_INFINITY) {
+            return "inf";
+        }
+
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "-inf";
+        }
+
+        long bits = Double.doubleToRawLongBits(value);
+
+        if (bits == 0) {
+            return "0.0";
+        }
+
+        if (bits == 0x8000000000000000L) {
+            return "-0.0";
+        }
+
+        int ieeeExponent = (int) ((bits >>> DOUBLE_MANTISSA_BITS) & DOUBLE_EXPONENT_MASK);
+        long ieeeMantissa = bits & DOUBLE_MANTISSA_MASK;
+        int e2;
+        long m2;
+
+        if (ieeeExponent == 0) {
+            // Subnormal: no implicit leading 1 and the exponent is 1, not 0.
+            e2 = 1 - DOUBLE_EXPONENT_BIAS - DOUBLE_MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - DOUBLE_EXPONENT_BIAS - DOUBLE_MANTISSA_BITS - 2;
+            m2 = ieeeMantissa | (1L << DOUBLE_MANTISSA_BITS);
+        }
+
+        // Determine the interval of decimal values that round to this double.
+        // The bounds are inclusive when the mantissa is even (round half even).
+        boolean even = (m2 & 1) == 0;
+        long mv = 4 * m2;
+        long mp = 4 * m2 + 2;
+        int mmShift = (m2 != (1L << DOUBLE_MANTISSA_BITS) || ieeeExponent <= 1) ? 1 : 0;
+        long mm = 4 * m2 - 1 - mmShift;
+
+        long dv;
+        long dp;
+        long dm;
+        int e10;
+        boolean dmIsTrailingZeros = false;
+        boolean dvIsTrailingZeros = false;
+
+        if (e2 >= 0) {
+            int q = Math.max(0, ((e2 * 78913) >>> 18) - 1);
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            dv = mulPow5InvDivPow2(mv, q, i);
+            dp = mulPow5InvDivPow2(mp, q, i);
+            dm = mulPow5InvDivPow2(mm, q, i);
+            e10 = q;
+
+            if (q <= 21) {
+                if (mv % 5 == 0) {
+                    dvIsTrailingZeros = pow5Factor(mv) >= q;
+                } else if (even) {
+                    dmIsTrailingZeros = pow5Factor(mm) >= q;
+                } else if (pow5Factor(mp) >= q) {
+                    dp--;
+                }
+            }
+        } else {
+            int q = Math.max(0, ((-e2 * 732923) >>> 20) - 1);
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            dv = mulPow5DivPow2(mv, i, j);
+            dp = mulPow5DivPow2(mp, i, j);
+            dm = mulPow5DivPow2(mm, i, j);
+            e10 = q + e2;
+
+            if (q <= 1) {
+                dvIsTrailingZeros = true;
+                if (even) {
+                    dmIsTrailingZeros = mmShift == 1;
+                } else {
+                    dp--;
+                }
+            } else if (q < 63) {
+                dvIsTrailingZeros = (mv & ((1L << (q - 1)) - 1)) == 0;
+            }
+        }
+
+        // Remove digits while the interval still contains a shorter number.
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+
+        if (dmIsTrailingZeros || dvIsTrailingZeros) {
+            while (dp / 10 > dm / 10) {
+                dmIsTrailingZeros &= dm % 10 == 0;
+                dvIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (dv % 10);
+                dp /= 10;
+                dv /= 10;
+                dm /= 10;
+                removed++;
+            }
+
+            if (dmIsTrailingZeros && even) {
+                while (dm % 10 == 0) {
+                    dvIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (dv % 10);
+                    dp /= 10;
+                    dv /= 10;
+                    dm /= 10;
+                    removed++;
+                }
+            }
+
+            if (dvIsTrailingZeros && lastRemovedDigit == 5 && dv % 2 == 0) {
+                // Exactly halfway: round to even.
+                lastRemovedDigit = 4;
+            }
+
+            output = dv + ((dv == dm && !(dmIsTrailingZeros && even)) || lastRemovedDigit >= 5 ? 1 : 0);
+        } else {
+            while (dp / 10 > dm / 10) {
+                lastRemovedDigit = (int) (dv % 10);
+                dp /= 10;
+                dv /= 10;
+                dm /= 10;
+                removed++;
+            }
+
+            output = dv + ((dv == dm || lastRemovedDigit >= 5) ? 1 : 0);
+        }
+
+        return layout(bits < 0, output, e10 + removed);
+    }
+
+    /**
+     * Lays out the decimal value digits * 10^exponent the way Python's repr
+     * does.
+     */
+    private static String layout(boolean negative, long digits, int exponent) {
+        char[] digitChars = new char[20];
+        int olength = 0;
+
+        // Strip trailing zeros so the digit string is as short as possible.
+        while (digits % 10 == 0) {
+            digits /= 10;
+            exponent++;
+        }
+
+        for (long v = digits; v != 0; v /= 10) {
+            digitChars[19 - olength] = (char) ('0' + (v % 10));
+            olength++;
+        }
+
+        int first = 20 - olength;
+        int sciExp = exponent + olength - 1;
+        StringBuilder out = new StringBuilder(olength + 8);
+
+        if (negative) {
+            out.append('-');
+        }
+
+        if (sciExp < -4 || sciExp >= 16) {
+            out.append(digitChars[first]);
+            if (olength > 1) {
+                out.append('.');
+                out.append(digitChars, first + 1, olength - 1);
+            }
+            out.append('e');
+            out.append(sciExp < 0 ? '-' : '+');
+            int absExp = Math.abs(sciExp);
+            if (absExp < 10) {
+                out.append('0');
+            }
+            out.append(absExp);
+        } else if (sciExp < 0) {
+            out.append("0.");
+            for (int i = -1; i > sciExp; i--) {
+                out.append('0');
+            }
+            out.append(digitChars, first, olength);
+        } else if (sciExp >= olength - 1) {
+            out.append(digitChars, first, olength);
+            for (int i = olength - 1; i < sciExp; i++) {
+                out.append('0');
+            }
+            out.append(".0");
+        } else {
+            out.append(digitChars, first, sciExp + 1);
+            out.append('.');
+            out.append(digitChars, first + sciExp + 1, olength - sciExp - 1);
+        }
+
+        return out.toString();
+    }
+
+    private static int pow5bits(int e) {
+        return ((e * 1217359) >>> 19) + 1;
+    }
+
+    private static int pow5Factor(long value) {
+        int count = 0;
+
+        while (value > 0 && value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+
+        return count;
+    }
+
+    // Computes the high bits of m * 5^i / 2^j.
+    private static long mulPow5DivPow2(long m, int i, int j) {
+        return mulShift(m, POW5_SPLIT[i], j);
+    }
+
+    // Computes the high bits of m / 5^i / 2^j.
+    private static long mulPow5InvDivPow2(long m, int i, int j) {
+        return mulShift(m, POW5_INV_SPLIT[i], j);
+    }
+
+    private static long mulShift(long m, int[] split, int j) {
+        // m has at most 55 bits.
+        long mHigh = m >>> 31;
+        long mLow = m & 0x7fffffff;
+        long bits13 = mHigh * split[0];
+        long bits03 = mLow * split[0];
+        long bits12 = mHigh * split[1];
+        long bits02 = mLow * split[1];
+        long bits11 = mHigh * split[2];
+        long bits01 = mLow * split[2];
+        long bits10 = mHigh * split[3];
+        long bits00 = mLow * split[3];
+        int actualShift = j - 3 * 31 - 21;
+
+        return ((((((((bits00 >>> 31) + bits01 + bits10) >>> 31)
+                + bits02 + bits11) >>> 31)
+                + bits03 + bits12) >>> 21)
+                + (bits13 << 10)) >>> actualShift;
+    }
+}
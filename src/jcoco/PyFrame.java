@@ -179,6 +179,9 @@ class PyFrame extends PyObjectAdapter {
 
     public void break_point_command_loop() {
         boolean exited = false;
+        // The debugger writes to System.out, so the program's output must be
+        // written out first.
+        JCoCo.stdout.flush();
         if (printDebuggerPrompt) {
             System.out.println("Entering Interactive Debugger in function " + this.code.getName() + " ...");
         }
@@ -186,7 +189,12 @@ class PyFrame extends PyObjectAdapter {
         while (!exited) {
 
             System.out.print("Enter command (h for help): ");
-            String cmd = JCoCo.scanner.nextLine();
+            String cmd = JCoCo.inputLine();
+
+            if (cmd == null) {
+                // There are no more commands to read.
+                cmd = "quit";
+            }
 
             printDebuggerPrompt = true; // for next time we get in here
 
@@ -228,6 +236,177 @@ class PyFrame extends PyObjectAdapter {
         }
     }
 
+    // Pops the top count values into a list sized for them, leaving them in
+    // the order they were pushed (the first pushed is at index 0).
+    private ArrayList<PyObject> popValues(int count) {
+        PyObject[] values = new PyObject[count];
+
+        for (int k = count - 1; k >= 0; k--) {
+            values[k] = this.safetyPop();
+        }
+
+        ArrayList<PyObject> result = new ArrayList<PyObject>(count);
+
+        for (int k = 0; k < count; k++) {
+            result.add(values[k]);
+        }
+
+        return result;
+    }
+
+    // Implements the in operator. Dictionaries and sets answer directly from
+    // their hash tables, strings search for a substring, and lists and
+    // tuples are scanned. Anything else is asked through its __contains__
+    // method or, if it has none, by iterating over it.
+    private boolean containsOp(PyObject container, PyObject x) {
+        if (container instanceof PyDict) {
+            return ((PyDict) container).contains(x);
+        }
+
+        if (container instanceof PySet) {
+            return ((PySet) container).contains(x);
+        }
+
+        if (container instanceof PyStr) {
+            if (!(x instanceof PyStr)) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "TypeError: 'in <string>' requires string as left operand, not " + x.getType().str());
+            }
+
+            return container.str().contains(x.str());
+        }
+
+        if (container instanceof PyList) {
+            return ((PyList) container).contains(x);
+        }
+
+        if (container instanceof PyRange) {
+            return ((PyRange) container).contains(x);
+        }
+
+        if (container instanceof PyTuple) {
+            PyTuple tuple = (PyTuple) container;
+
+            for (int k = 0; k < tuple.size(); k++) {
+                if (PyHashTable.keysEqual(x, tuple.getVal(k))) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        PyObject method;
+
+        try {
+            method = container.get("__contains__");
+        } catch (PyException e) {
+            method = null;
+        }
+
+        if (method != null) {
+            args.add(x);
+            return ((PyBool) container.callMethod("__contains__", args)).getVal();
+        }
+
+        PyObject it = container.callMethod("__iter__", args);
+
+        while (true) {
+            PyObject y;
+
+            try {
+                y = it.callMethod("__next__", args);
+            } catch (PyException e) {
+                if (e.getExceptionType() == ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                    return false;
+                }
+                throw e;
+            }
+
+            if (PyHashTable.keysEqual(x, y)) {
+                return true;
+            }
+        }
+    }
+
+    // The bitwise and shift instructions are computed directly on the
+    // primitive value when both operands are ints or bools. Any other operand
+    // types are handled by calling the corresponding magic method on the left
+    // operand so user-defined classes can provide them.
+    private PyObject bitwiseOp(PyOpCode opcode, PyObject u, PyObject v) {
+        boolean uIsInt = u instanceof PyInt;
+        boolean vIsInt = v instanceof PyInt;
+        String funName;
+
+        if ((uIsInt || u instanceof PyBool) && (vIsInt || v instanceof PyBool)) {
+            int x = uIsInt ? ((PyInt) u).getVal() : ((PyBool) u).getIntVal();
+            int y = vIsInt ? ((PyInt) v).getVal() : ((PyBool) v).getIntVal();
+            boolean bothBool = !uIsInt && !vIsInt;
+
+            switch (opcode) {
+                case BINARY_AND:
+                case INPLACE_AND:
+                    return bothBool ? new PyBool((x & y) != 0) : new PyInt(x & y);
+                case BINARY_OR:
+                case INPLACE_OR:
+                    return bothBool ? new PyBool((x | y) != 0) : new PyInt(x | y);
+                case BINARY_XOR:
+                case INPLACE_XOR:
+                    return bothBool ? new PyBool((x ^ y) != 0) : new PyInt(x ^ y);
+                case BINARY_LSHIFT:
+                case INPLACE_LSHIFT:
+                    if (y < 0) {
+                        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                                "ValueError: negative shift count");
+                    }
+                    if (x == 0) {
+                        return new PyInt(0);
+                    }
+                    // Java masks the shift count, so check for overflow the
+                    // same way Math.addExact and friends do for the other
+                    // arithmetic instructions.
+                    if (y >= 31 || (x << y) >> y != x) {
+                        throw new ArithmeticException("integer overflow");
+                    }
+                    return new PyInt(x << y);
+                default:
+                    if (y < 0) {
+                        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                                "ValueError: negative shift count");
+                    }
+                    return new PyInt(x >> Math.min(y, 31));
+            }
+        }
+
+        switch (opcode) {
+            case BINARY_AND:
+            case INPLACE_AND:
+                funName = "__and__";
+                break;
+            case BINARY_OR:
+            case INPLACE_OR:
+                funName = "__or__";
+                break;
+            case BINARY_XOR:
+            case INPLACE_XOR:
+                funName = "__xor__";
+                break;
+            case BINARY_LSHIFT:
+            case INPLACE_LSHIFT:
+                funName = "__lshift__";
+                break;
+            default:
+                funName = "__rshift__";
+                break;
+        }
+
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        args.add(v);
+
+        return u.callMethod(funName, args);
+    }
+
     public PyObject execute() {
 
         this.PC = 0;
@@ -322,6 +501,15 @@ class PyFrame extends PyObjectAdapter {
                     case COMPARE_OP:
                         v = this.safetyPop();
                         u = this.safetyPop();
+
+                        //For in and not in the container is the right operand
+                        //so it is the one whose __contains__ is called.
+                        if (operand == 6 || operand == 7) {
+                            boolean found = containsOp(v, u);
+                            this.opStack.push(new PyBool(found == (operand == 6)));
+                            break;
+                        }
+
                         args = new ArrayList<PyObject>();
                         args.add(v);
 
@@ -456,6 +644,62 @@ class PyFrame extends PyObjectAdapter {
                         w = u.callMethod("__pow__", args);
                         this.opStack.push(w);
                         break;
+                    case UNARY_POSITIVE:
+                        u = this.safetyPop();
+                        if (u instanceof PyInt || u instanceof PyFloat) {
+                            w = u;
+                        } else if (u instanceof PyBool) {
+                            w = new PyInt(((PyBool) u).getIntVal());
+                        } else {
+                            w = u.callMethod("__pos__", new ArrayList<PyObject>());
+                        }
+                        this.opStack.push(w);
+                        break;
+                    case UNARY_NEGATIVE:
+                        u = this.safetyPop();
+                        if (u instanceof PyInt) {
+                            // Math.negateExact throws an Arithmetic overflow
+                            // exception if it overflows.
+                            w = new PyInt(Math.negateExact(((PyInt) u).getVal()));
+                        } else if (u instanceof PyFloat) {
+                            w = new PyFloat(-((PyFloat) u).getVal());
+                        } else if (u instanceof PyBool) {
+                            w = new PyInt(-((PyBool) u).getIntVal());
+                        } else {
+                            w = u.callMethod("__neg__", new ArrayList<PyObject>());
+                        }
+                        this.opStack.push(w);
+                        break;
+                    case UNARY_NOT:
+                        u = this.safetyPop();
+                        w = new PyBool(!PyBool.isTrue(u));
+                        this.opStack.push(w);
+                        break;
+                    case UNARY_INVERT:
+                        u = this.safetyPop();
+                        if (u instanceof PyInt) {
+                            w = new PyInt(~((PyInt) u).getVal());
+                        } else if (u instanceof PyBool) {
+                            w = new PyInt(~((PyBool) u).getIntVal());
+                        } else {
+                            w = u.callMethod("__invert__", new ArrayList<PyObject>());
+                        }
+                        this.opStack.push(w);
+                        break;
+                    case BINARY_AND:
+                    case INPLACE_AND:
+                    case BINARY_OR:
+                    case INPLACE_OR:
+                    case BINARY_XOR:
+                    case INPLACE_XOR:
+                    case BINARY_LSHIFT:
+                    case INPLACE_LSHIFT:
+                    case BINARY_RSHIFT:
+                    case INPLACE_RSHIFT:
+                        v = this.safetyPop();
+                        u = this.safetyPop();
+                        this.opStack.push(bitwiseOp(opcode, u, v));
+                        break;
                     case GET_ITER:
                         u = this.safetyPop();
                         args = new ArrayList<PyObject>();
@@ -527,6 +771,12 @@ class PyFrame extends PyObjectAdapter {
                     case BINARY_SUBSCR:
                         u = this.safetyPop();
                         v = this.safetyPop();
+
+                        if (v instanceof PyDict) {
+                            this.opStack.push(((PyDict) v).getItem(u));
+                            break;
+                        }
+
                         args = new ArrayList<PyObject>();
                         args.add(u);
 
@@ -537,6 +787,12 @@ class PyFrame extends PyObjectAdapter {
                         u = this.safetyPop();
                         v = this.safetyPop();
                         w = this.safetyPop();
+
+                        if (v instanceof PyDict) {
+                            ((PyDict) v).setItem(u, w);
+                            break;
+                        }
+
                         args = new ArrayList<PyObject>();
                         args.add(w);
                         args.add(u);
@@ -552,11 +808,7 @@ class PyFrame extends PyObjectAdapter {
                         break;
 
                     case BUILD_FUNLIST:
-                        args = new ArrayList<PyObject>();
-                        for (i = 0; i < operand; i++) {
-                            u = safetyPop();
-                            args.add(0, u);
-                        }
+                        args = popValues(operand);
 
                         opStack.push(new PyFunList(args));
                         break;
@@ -585,12 +837,55 @@ class PyFrame extends PyObjectAdapter {
                         this.opStack.push(new PyBuildClass(globals));
                         break;
 
-                    case BUILD_TUPLE:
-                        args = new ArrayList<PyObject>();
+                    case BUILD_MAP:
+                        //The operand is the number of entries that follow, so
+                        //the table can be sized once, up front.
+                        this.opStack.push(new PyDict(operand));
+                        break;
+                    case MAP_ADD:
+                        //As in Python 3.2, the key is on top of the value.
+                        u = this.safetyPop();
+                        v = this.safetyPop();
+                        w = this.opStack.peek(operand);
+                        ((PyDict) w).setItem(u, v);
+                        break;
+                    case STORE_MAP:
+                        u = this.safetyPop();
+                        v = this.safetyPop();
+                        w = this.opStack.top();
+
+                        if (w instanceof PyDict) {
+                            ((PyDict) w).setItem(u, v);
+                        } else {
+                            args = new ArrayList<PyObject>();
+                            args.add(v);
+                            args.add(u);
+                            w.callMethod("__setitem__", args);
+                        }
+                        break;
+                    case BUILD_SLICE:
+                        // The step is only on the stack for x[start:stop:step].
+                        w = operand == 3 ? this.safetyPop() : new PyNone();
+                        v = this.safetyPop();
+                        u = this.safetyPop();
+                        this.opStack.push(new PySlice(u, v, w));
+                        break;
+                    case BUILD_SET:
+                        args = popValues(operand);
+                        PySet set = new PySet(false, operand);
                         for (i = 0; i < operand; i++) {
-                            u = this.safetyPop();
-                            args.add(0, u);
+                            set.add(args.get(i));
                         }
+
+                        this.opStack.push(set);
+                        break;
+                    case SET_ADD:
+                        u = this.safetyPop();
+                        v = this.opStack.peek(operand);
+                        ((PySet) v).add(u);
+                        break;
+                    case BUILD_TUPLE:
+                        args = popValues(operand);
                         this.opStack.push(new PyTuple(args));
                         break;
                     case SELECT_TUPLE:
@@ -612,14 +907,16 @@ class PyFrame extends PyObjectAdapter {
                         }
                         break;
                     case BUILD_LIST:
-                        args = new ArrayList<PyObject>();
-                        for (i = 0; i < operand; i++) {
-                            u = this.safetyPop();
-                            args.add(0, u);
-                        }
-
+                        args = popValues(operand);
                         this.opStack.push(new PyList(args));
                         break;
+                    case LIST_APPEND:
+                        //The list being built sits operand entries down the
+                        //stack (below the iterator) once the value is popped.
+                        u = this.safetyPop();
+                        v = this.opStack.peek(operand);
+                        ((PyList) v).append(u);
+                        break;
                     case MAKE_CLOSURE:
                         u = this.safetyPop();
                         v = this.safetyPop();
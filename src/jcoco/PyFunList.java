@@ -8,71 +8,107 @@
  * KIND.
  *
  * Description:
- * Not Yet Implemented
+ * The JCoCo implementation of funlists, the immutable lists of the
+ * functional programming chapter. A funlist is built by BUILD_FUNLIST, taken
+ * apart by SELECT_FUNLIST (into its head and its tail), and extended by
+ * CONS_FUNLIST.
+ *
+ * The elements are kept in a PyFingerTree so taking the head or tail or
+ * consing an element onto the front is (amortized) constant time, indexing
+ * and concatenation are O(log n), and a funlist shares its structure with the
+ * funlists it was made from. A funlist's methods are shared by all funlists
+ * (see PyPrimitiveTypeAdapter), so making the tail of a funlist allocates
+ * only the new tree and the funlist object that holds it.
  */
 package jcoco;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 
 public class PyFunList extends PyPrimitiveTypeAdapter {
 
-    private PyFunListElm data = null;
+    private final PyFingerTree tree;
 
     public PyFunList() {
-        super("funlist", PyType.PyTypeId.PyFunListType);
-        PyFunList self = this;
-        initMethods(funs());
-
+        this(PyFingerTree.EMPTY);
     }
 
     public PyFunList(ArrayList<PyObject> lst) {
-        this();
+        this(fromList(lst));
+    }
 
-        int k;
-        PyFunListElm tmp = null;
-        for (k = lst.size() - 1; k >= 0; k--) {
-            tmp = new PyFunListElm(lst.get(k), tmp);
-        }
-        data = tmp;
+    public PyFunList(PyObject h, PyFunList t) {
+        this(t.tree.consLeft(h));
+    }
 
+    private PyFunList(PyFingerTree tree) {
+        super("funlist", PyType.PyTypeId.PyFunListType, true);
+        this.tree = tree;
     }
 
-    public PyFunList(PyFunListElm data) {
-        this();
-        this.data = data;
+    private static PyFingerTree fromList(ArrayList<PyObject> lst) {
+        PyFingerTree tree = PyFingerTree.EMPTY;
+
+        for (int k = 0; k < lst.size(); k++) {
+            tree = tree.consRight(lst.get(k));
+        }
+
+        return tree;
     }
 
-    public PyFunList(PyObject h, PyFunList t) {
-        this();
-        this.data = new PyFunListElm(h, t.getElm());
+    PyFingerTree tree() {
+        return tree;
     }
 
-    public PyFunListElm getElm() {
-        return data;
+    public int len() {
+        return tree.size();
     }
 
     @Override
     public String str() {
-        String s = "[";
+        StringBuilder s = new StringBuilder("[");
         ArrayList<PyObject> args = new ArrayList<PyObject>();
+        PyFingerTree rest = tree;
 
-        if (data != null) {
-            s += data.repr();
+        while (!rest.isEmpty()) {
+            if (rest != tree) {
+                s.append(", ");
+            }
+
+            s.append(((PyObject) rest.headLeft()).callMethod("__repr__", args).str());
+            rest = rest.tailLeft();
+        }
+
+        s.append("]");
+
+        return s.toString();
+    }
+
+    public PyFunList slice(PySlice slice) {
+        int[] indices = slice.indices(len());
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+
+        if (step == 1) {
+            return new PyFunList(tree.drop(start).take(count));
         }
 
-        s += "]";
+        PyFingerTree result = PyFingerTree.EMPTY;
+
+        for (int k = 0; k < count; k++) {
+            result = result.consRight(tree.get(start + k * step));
+        }
 
-        return s;
+        return new PyFunList(result);
     }
 
     public PyObject getHead() {
-        return data.getHead();
+        return (PyObject) tree.headLeft();
     }
 
     public PyObject getTail() {
-        return new PyFunList(data.getTail());
+        return new PyFunList(tree.tailLeft());
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -88,24 +124,22 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
 
-                if (self.data == null) {
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
+                if (self.len() == 0) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Attempt to index into an empty funlist.");
                 }
 
                 PyInt intObj = (PyInt) args.get(0);
                 int index = intObj.getVal();
 
-                if (index >= self.data.getLen()) {
+                if (index < 0 || index >= self.len()) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Index out of range on funlist.");
                 }
 
-                PyFunListElm tmp = self.data;
-
-                for (int k = 0; k < index; k++) {
-                    tmp = tmp.getTail();
-                }
-
-                return tmp.getHead();
+                return self.tree.get(index);
             }
         });
 
@@ -120,11 +154,7 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
 
-                if (self.data == null) {
-                    return new PyInt(0);
-                }
-
-                return new PyInt(self.data.getLen());
+                return new PyInt(self.len());
             }
         });
 
@@ -154,23 +184,8 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
                 PyFunList other = (PyFunList) args.get(0);
-                PyStack<PyObject> tmpStack = new PyStack<PyObject>();
-                PyFunListElm tmp = self.data;
-                PyObject val;
-
-                while (tmp != null) {
-                    tmpStack.push(tmp.getHead());
-                    tmp = tmp.getTail();
-                }
-
-                tmp = other.data;
 
-                while (!tmpStack.isEmpty()) {
-                    val = tmpStack.pop();
-                    tmp = new PyFunListElm(val, tmp);
-                }
-
-                return new PyFunList(tmp);
+                return new PyFunList(self.tree.concat(other.tree));
             }
         });
 
@@ -185,12 +200,7 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
 
-                if (self.data == null) {
-                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "Attempt to get head of empty funlist");
-                }
-
-                return self.getElm().getHead();
+                return self.getHead();
             }
         });
 
@@ -204,13 +214,7 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
 
-                if (self.data == null) {
-                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "Attempt to get tail of empty funlist");
-                }
-
-                return new PyFunList(self.getElm().getTail());
-
+                return self.getTail();
             }
         });
 
@@ -224,16 +228,15 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
-                String s = "";
-
-                PyFunListElm tmp = self.data;
+                StringBuilder s = new StringBuilder();
+                PyFingerTree rest = self.tree;
 
-                while (self.data != null) {
-                    s += self.data.getHead().str();
-                    self.data = self.data.getTail();
+                while (!rest.isEmpty()) {
+                    s.append(((PyObject) rest.headLeft()).str());
+                    rest = rest.tailLeft();
                 }
 
-                return new PyStr(s);
+                return new PyStr(s.toString());
             }
         });
 
@@ -254,30 +257,26 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyFunList other = (PyFunList) args.get(0);
-                PyFunListElm tmp = self.data;
-                PyFunListElm otherTmp = other.data;
-
-                if (tmp == null) {
-                    return new PyBool(otherTmp == null);
-                }
+                PyFingerTree tmp = self.tree;
+                PyFingerTree otherTmp = other.tree;
 
-                if (tmp.getLen() != otherTmp.getLen()) {
+                if (tmp.size() != otherTmp.size()) {
                     return new PyBool(false);
                 }
                 ArrayList<PyObject> newargs = new ArrayList<PyObject>();
 
-                while (tmp != null) {
-                    newargs.add(otherTmp.getHead());
+                while (!tmp.isEmpty()) {
+                    newargs.add((PyObject) otherTmp.headLeft());
 
-                    PyBool result = (PyBool) tmp.getHead().callMethod("__eq__", newargs);
+                    PyBool result = (PyBool) ((PyObject) tmp.headLeft()).callMethod("__eq__", newargs);
                     newargs.remove(newargs.size() - 1);
 
                     if (!result.getVal()) {
                         return result;
                     }
 
-                    tmp = tmp.getTail();
-                    otherTmp = otherTmp.getTail();
+                    tmp = tmp.tailLeft();
+                    otherTmp = otherTmp.tailLeft();
                 }
 
                 return new PyBool(true);
@@ -316,15 +315,16 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyFunList self = (PyFunList) args.get(args.size() - 1);
-                PyFunListElm current = self.data;
+                ArrayList<PyObject> noargs = new ArrayList<PyObject>();
+                PyFingerTree current = self.tree;
                 int total = 0;
                 int val;
 
-                while (current != null) {
-                    val = ((PyInt) (current.getHead().callMethod("__hash__", args))).getVal();
+                while (!current.isEmpty()) {
+                    val = ((PyInt) (((PyObject) current.headLeft()).callMethod("__hash__", noargs))).getVal();
 
                     total = (total + (val % (Integer.MAX_VALUE / 2))) % (Integer.MAX_VALUE / 2);
-                    current = current.getTail();
+                    current = current.tailLeft();
                 }
 
                 return new PyInt(total);
@@ -16,12 +16,11 @@ import java.util.HashMap;
 
 public class PyFunListIterator extends PyPrimitiveTypeAdapter {
 
-    private PyFunListElm element;
+    private PyFingerTree rest;
 
     public PyFunListIterator(PyFunList lst) {
-        super("funlist_iterator", PyType.PyTypeId.PyFunListIteratorType);
-        initMethods(funs());
-        this.element = lst.getElm();
+        super("funlist_iterator", PyType.PyTypeId.PyFunListIteratorType, true);
+        this.rest = lst.tree();
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -53,13 +52,13 @@ public class PyFunListIterator extends PyPrimitiveTypeAdapter {
 
                 PyFunListIterator self = (PyFunListIterator) args.get(args.size() - 1);
 
-                if (self.element == null) {
+                if (self.rest.isEmpty()) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION,
                             "Stopping Iteration");
                 }
 
-                PyObject item = self.element.getHead();
-                self.element = self.element.getTail();
+                PyObject item = (PyObject) self.rest.headLeft();
+                self.rest = self.rest.tailLeft();
                 return item;
             }
         });
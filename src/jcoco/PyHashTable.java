@@ -0,0 +1,346 @@
+/**
+ * PyHashTable.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The hash table behind PyDict. It is laid out the same way as the
+ * dictionaries of CPython 3.6 and later. The entries (hash, key, and value)
+ * are kept in insertion order in parallel arrays, and a separate,
+ * power-of-two sized array of ints (the indices) maps hash slots to entries.
+ * Collisions are resolved by open addressing using the same perturbed probe
+ * sequence as CPython. Because the entries are dense, iteration is in
+ * insertion order and does not visit empty slots.
+ *
+ * The hash of every key is computed once, when it is inserted, and cached in
+ * the entry. The hash is compared before any equality test, and int, bool,
+ * float, and str keys are hashed and compared directly on their Java values,
+ * and tuples use their cached hash and compare their elements the same way.
+ * Only other keys (i.e. instances of user-defined classes) go through their
+ * __hash__ and __eq__ methods.
+ *
+ * Entries that are removed leave a null key behind (and a DUMMY in the
+ * indices) so the probe sequences of other keys are not broken. These are
+ * squeezed out the next time the table is resized.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+class PyHashTable {
+
+    private static final int EMPTY = -1;
+    private static final int DUMMY = -2;
+    private static final int MIN_SIZE = 8;
+
+    private int[] indices;
+    private int[] hashes;
+    private PyObject[] keys;
+    private PyObject[] values;
+    private final boolean hasValues;
+
+    // used counts the entries that have been filled, including removed
+    // ones. size counts the entries that are still live.
+    private int used;
+    private int size;
+    // Every entry before first has been removed.
+    private int first;
+
+    public PyHashTable(boolean hasValues, int expected) {
+        this.hasValues = hasValues;
+        allocate(capacityFor(expected));
+    }
+
+    public static int hashOf(PyObject key) {
+        if (key instanceof PyStr) {
+            return ((PyStr) key).hash();
+        }
+
+        // These agree with the __hash__ methods of int, bool, and float, and
+        // equal numbers hash the same regardless of their type.
+        if (key instanceof PyInt) {
+            return Math.abs(((PyInt) key).getVal());
+        }
+
+        if (key instanceof PyBool) {
+            return ((PyBool) key).getIntVal();
+        }
+
+        if (key instanceof PyFloat) {
+            double d = ((PyFloat) key).getVal();
+            if (d == (int) d) {
+                return Math.abs((int) d);
+            }
+            return Double.valueOf(d).hashCode();
+        }
+
+        if (key instanceof PyTuple) {
+            return ((PyTuple) key).hash();
+        }
+
+        PyInt hash = (PyInt) key.callMethod("__hash__", new ArrayList<PyObject>());
+
+        return hash.getVal();
+    }
+
+    public static boolean keysEqual(PyObject a, PyObject b) {
+        if (a == b) {
+            return true;
+        }
+
+        if (a instanceof PyStr) {
+            return b instanceof PyStr && a.str().equals(b.str());
+        }
+
+        if (a instanceof PyInt && b instanceof PyInt) {
+            return ((PyInt) a).getVal() == ((PyInt) b).getVal();
+        }
+
+        if (isNumber(a) && isNumber(b)) {
+            return toDouble(a) == toDouble(b);
+        }
+
+        if (isNumber(a) || b instanceof PyStr || isNumber(b)) {
+            return false;
+        }
+
+        if (a instanceof PyTuple) {
+            return b instanceof PyTuple && ((PyTuple) a).equalTo((PyTuple) b);
+        }
+
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        args.add(b);
+
+        return ((PyBool) a.callMethod("__eq__", args)).getVal();
+    }
+
+    private static boolean isNumber(PyObject obj) {
+        return obj instanceof PyInt || obj instanceof PyFloat || obj instanceof PyBool;
+    }
+
+    private static double toDouble(PyObject obj) {
+        if (obj instanceof PyInt) {
+            return ((PyInt) obj).getVal();
+        }
+
+        if (obj instanceof PyFloat) {
+            return ((PyFloat) obj).getVal();
+        }
+
+        return ((PyBool) obj).getIntVal();
+    }
+
+    private static int capacityFor(int expected) {
+        // Keep the table at most two thirds full.
+        int capacity = MIN_SIZE;
+
+        while (capacity * 2 < expected * 3 + 3) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        int usable = capacity * 2 / 3;
+
+        this.indices = new int[capacity];
+        Arrays.fill(this.indices, EMPTY);
+        this.hashes = new int[usable];
+        this.keys = new PyObject[usable];
+        if (this.hasValues) {
+            this.values = new PyObject[usable];
+        }
+        this.used = 0;
+        this.size = 0;
+        this.first = 0;
+    }
+
+    // Returns the slot in indices that refers to the key or, if the key is
+    // not present, the one's complement of the slot where it should go.
+    private int probe(PyObject key, int hash) {
+        int mask = this.indices.length - 1;
+        int perturb = hash;
+        int i = hash & mask;
+        int freeSlot = -1;
+
+        while (true) {
+            int ix = this.indices[i];
+
+            if (ix == EMPTY) {
+                return ~(freeSlot >= 0 ? freeSlot : i);
+            }
+
+            if (ix == DUMMY) {
+                if (freeSlot < 0) {
+                    freeSlot = i;
+                }
+            } else if (this.hashes[ix] == hash && keysEqual(this.keys[ix], key)) {
+                return i;
+            }
+
+            perturb >>>= 5;
+            i = (i * 5 + 1 + perturb) & mask;
+        }
+    }
+
+    private void resize(int expected) {
+        int[] oldHashes = this.hashes;
+        PyObject[] oldKeys = this.keys;
+        PyObject[] oldValues = this.values;
+        int oldUsed = this.used;
+
+        allocate(capacityFor(expected));
+
+        int mask = this.indices.length - 1;
+
+        for (int k = 0; k < oldUsed; k++) {
+            if (oldKeys[k] == null) {
+                continue;
+            }
+
+            int hash = oldHashes[k];
+            int perturb = hash;
+            int i = hash & mask;
+
+            while (this.indices[i] != EMPTY) {
+                perturb >>>= 5;
+                i = (i * 5 + 1 + perturb) & mask;
+            }
+
+            this.indices[i] = this.used;
+            this.hashes[this.used] = hash;
+            this.keys[this.used] = oldKeys[k];
+            if (this.hasValues) {
+                this.values[this.used] = oldValues[k];
+            }
+            this.used++;
+        }
+
+        this.size = this.used;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int lookup(PyObject key) {
+        int slot = probe(key, hashOf(key));
+
+        if (slot < 0) {
+            return -1;
+        }
+
+        return this.indices[slot];
+    }
+
+    public boolean containsKey(PyObject key) {
+        return lookup(key) >= 0;
+    }
+
+    public PyObject get(PyObject key) {
+        int ix = lookup(key);
+
+        if (ix < 0) {
+            return null;
+        }
+
+        return this.hasValues ? this.values[ix] : this.keys[ix];
+    }
+
+    /**
+     * Stores the key (and value, for dictionaries).
+     *
+     * @return true if the key was not already in the table
+     */
+    public boolean put(PyObject key, PyObject value) {
+        int hash = hashOf(key);
+
+        return put(key, hash, value);
+    }
+
+    public boolean put(PyObject key, int hash, PyObject value) {
+        int slot = probe(key, hash);
+
+        if (slot >= 0) {
+            if (this.hasValues) {
+                this.values[this.indices[slot]] = value;
+            }
+            return false;
+        }
+
+        if (this.used == this.keys.length) {
+            resize(this.size + 1);
+            slot = probe(key, hash);
+        }
+
+        slot = ~slot;
+        this.indices[slot] = this.used;
+        this.hashes[this.used] = hash;
+        this.keys[this.used] = key;
+        if (this.hasValues) {
+            this.values[this.used] = value;
+        }
+        this.used++;
+        this.size++;
+
+        return true;
+    }
+
+    public boolean remove(PyObject key) {
+        int slot = probe(key, hashOf(key));
+
+        if (slot < 0) {
+            return false;
+        }
+
+        int ix = this.indices[slot];
+        this.indices[slot] = DUMMY;
+        this.keys[ix] = null;
+        if (this.hasValues) {
+            this.values[ix] = null;
+        }
+        this.size--;
+
+        return true;
+    }
+
+    public void clear() {
+        allocate(MIN_SIZE);
+    }
+
+    // The methods below walk the entries in insertion order. Entry positions
+    // run from 0 to entryLimit() - 1, and keyAt returns null for entries that
+    // were removed.
+    public int entryLimit() {
+        return this.used;
+    }
+
+    // The position of the first entry that was not removed, or -1 if there
+    // is none. Entries are only added after the last one, so the search goes
+    // on from where the last one stopped, as CPython's set.pop does.
+    public int firstEntry() {
+        while (this.first < this.used && this.keys[this.first] == null) {
+            this.first++;
+        }
+
+        return this.first < this.used ? this.first : -1;
+    }
+
+    public PyObject keyAt(int ix) {
+        return this.keys[ix];
+    }
+
+    public PyObject valueAt(int ix) {
+        return this.values[ix];
+    }
+
+    public int hashAt(int ix) {
+        return this.hashes[ix];
+    }
+}
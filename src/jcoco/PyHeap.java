@@ -0,0 +1,134 @@
+/**
+ * PyHeap.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The algorithms of the heapq module. A heap is an ordinary list whose
+ * elements satisfy heap[k] <= heap[2*k+1] and heap[k] <= heap[2*k+2], so the
+ * smallest element is always heap[0]. The elements are moved around in the
+ * list's own storage by PyListStorage.siftDown and siftUp, so a heap of ints
+ * or floats is kept in an unboxed array and compared as java numbers, and
+ * tuples such as (priority, item) are compared natively as well.
+ *
+ * nsmallest and nlargest keep the best n elements seen so far in a java
+ * PriorityQueue, so finding a few of many elements never sorts them all.
+ * Like Python's, they give the same result as sorting and taking the first
+ * n, equal elements included.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+final class PyHeap {
+
+    private PyHeap() {
+    }
+
+    static void push(PyList heap, PyObject x) {
+        heap.append(x);
+
+        PyListStorage storage = heap.heap();
+        storage.siftDown(0, storage.size() - 1);
+    }
+
+    static PyObject pop(PyList heap) {
+        PyObject last = heap.pop();
+        PyListStorage storage = heap.heap();
+
+        if (storage.size() == 0) {
+            return last;
+        }
+
+        PyObject smallest = storage.get(0);
+        heap.setVal(0, last);
+
+        heap.heap().siftUp(0);
+
+        return smallest;
+    }
+
+    static void heapify(PyList heap) {
+        PyListStorage storage = heap.heap();
+
+        for (int k = storage.size() / 2 - 1; k >= 0; k--) {
+            storage.siftUp(k);
+        }
+    }
+
+    /**
+     * The n smallest (or with largest set, the n largest) elements of the
+     * iterable, in order, compared by the values the key function gives for
+     * them if key is not null.
+     */
+    static PyList select(int n, PyObject iterable, PyObject key, boolean largest) {
+        final ArrayList<PyObject> items = new ArrayList<PyObject>();
+        Iterator<PyObject> it = PyIterables.iterator(iterable);
+
+        while (it.hasNext()) {
+            items.add(it.next());
+        }
+
+        final ArrayList<PyObject> keys;
+
+        if (key == null) {
+            keys = items;
+        } else {
+            keys = new ArrayList<PyObject>(items.size());
+
+            for (PyObject x : items) {
+                keys.add(PyIterables.call(key, x));
+            }
+        }
+
+        n = Math.min(n, items.size());
+
+        if (n <= 0) {
+            return new PyList(new ArrayList<PyObject>());
+        }
+
+        final Comparator<PyObject> byKey = largest
+                ? Collections.reverseOrder(PySort.comparator(keys)) : PySort.comparator(keys);
+
+        // Elements with equal keys keep their order, as in a stable sort.
+        Comparator<Integer> order = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int c = byKey.compare(keys.get(a), keys.get(b));
+
+                return c != 0 ? c : Integer.compare(a, b);
+            }
+        };
+
+        // The worst of the best n so far is at the head of the queue.
+        PriorityQueue<Integer> best = new PriorityQueue<Integer>(n, Collections.reverseOrder(order));
+
+        for (int k = 0; k < items.size(); k++) {
+            if (best.size() < n) {
+                best.add(k);
+            } else if (order.compare(k, best.peek()) < 0) {
+                best.poll();
+                best.add(k);
+            }
+        }
+
+        ArrayList<Integer> indices = new ArrayList<Integer>(best);
+        Collections.sort(indices, order);
+
+        ArrayList<PyObject> result = new ArrayList<PyObject>(n);
+
+        for (int k : indices) {
+            result.add(items.get(k));
+        }
+
+        return new PyList(result);
+    }
+}
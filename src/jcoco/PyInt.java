@@ -22,8 +22,7 @@ public class PyInt extends PyPrimitiveTypeAdapter {
     private int val;
 
     public PyInt(int iVal) {
-        super("int",PyTypeId.PyIntType);
-        initMethods(funs());
+        super("int", PyTypeId.PyIntType, true);
         this.val = iVal;
     }
 
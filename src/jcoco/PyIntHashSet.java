@@ -0,0 +1,181 @@
+/**
+ * PyIntHashSet.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A set of Java ints used by PySet while every member of the set is an int.
+ * It has the same layout as PyHashTable (dense members in insertion order
+ * and a power-of-two array of indices probed the same way) but the members
+ * are stored unboxed, so no PyInt objects are kept and no methods are called
+ * to hash or compare them.
+ */
+package jcoco;
+
+import java.util.Arrays;
+
+class PyIntHashSet {
+
+    private static final int EMPTY = -1;
+    private static final int DUMMY = -2;
+    private static final int MIN_SIZE = 8;
+
+    private int[] indices;
+    private int[] members;
+    private boolean[] removed;
+    private int used;
+    private int size;
+    // Every member before first has been removed.
+    private int first;
+
+    public PyIntHashSet(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = MIN_SIZE;
+
+        while (capacity * 2 < expected * 3 + 3) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        int usable = capacity * 2 / 3;
+
+        this.indices = new int[capacity];
+        Arrays.fill(this.indices, EMPTY);
+        this.members = new int[usable];
+        this.removed = new boolean[usable];
+        this.used = 0;
+        this.size = 0;
+        this.first = 0;
+    }
+
+    // Returns the slot in indices that refers to the value or, if the value
+    // is not present, the one's complement of the slot where it should go.
+    private int probe(int value) {
+        int mask = this.indices.length - 1;
+        int perturb = value;
+        int i = value & mask;
+        int freeSlot = -1;
+
+        while (true) {
+            int ix = this.indices[i];
+
+            if (ix == EMPTY) {
+                return ~(freeSlot >= 0 ? freeSlot : i);
+            }
+
+            if (ix == DUMMY) {
+                if (freeSlot < 0) {
+                    freeSlot = i;
+                }
+            } else if (this.members[ix] == value) {
+                return i;
+            }
+
+            perturb >>>= 5;
+            i = (i * 5 + 1 + perturb) & mask;
+        }
+    }
+
+    private void resize(int expected) {
+        int[] oldMembers = this.members;
+        boolean[] oldRemoved = this.removed;
+        int oldUsed = this.used;
+
+        allocate(capacityFor(expected));
+
+        for (int k = 0; k < oldUsed; k++) {
+            if (!oldRemoved[k]) {
+                int slot = ~probe(oldMembers[k]);
+                this.indices[slot] = this.used;
+                this.members[this.used] = oldMembers[k];
+                this.used++;
+            }
+        }
+
+        this.size = this.used;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean contains(int value) {
+        return probe(value) >= 0;
+    }
+
+    /**
+     * @return true if the value was not already in the set
+     */
+    public boolean add(int value) {
+        int slot = probe(value);
+
+        if (slot >= 0) {
+            return false;
+        }
+
+        if (this.used == this.members.length) {
+            resize(this.size + 1);
+            slot = probe(value);
+        }
+
+        slot = ~slot;
+        this.indices[slot] = this.used;
+        this.members[this.used] = value;
+        this.used++;
+        this.size++;
+
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = probe(value);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        this.removed[this.indices[slot]] = true;
+        this.indices[slot] = DUMMY;
+        this.size--;
+
+        return true;
+    }
+
+    public void clear() {
+        allocate(MIN_SIZE);
+    }
+
+    // As in PyHashTable, members are visited in insertion order by running
+    // ix from 0 to entryLimit() - 1 and skipping those that were removed.
+    public int entryLimit() {
+        return this.used;
+    }
+
+    // The position of the first member that was not removed, or -1 if there
+    // is none, found as PyHashTable.firstEntry finds it.
+    public int firstEntry() {
+        while (this.first < this.used && this.removed[this.first]) {
+            this.first++;
+        }
+
+        return this.first < this.used ? this.first : -1;
+    }
+
+    public boolean isRemoved(int ix) {
+        return this.removed[ix];
+    }
+
+    public int memberAt(int ix) {
+        return this.members[ix];
+    }
+}
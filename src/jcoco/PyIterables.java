@@ -0,0 +1,440 @@
+/**
+ * PyIterables.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Java iterators over the elements of JCoCo iterables, for the built-in
+ * functions written in Java. Lists, tuples, ranges, funlists, and strs are
+ * read directly from where they keep their elements, and the lazy iterators
+ * made by map, filter, zip, enumerate, and reversed hand over the java
+ * iterator they were built on, so a chain of them runs without calling
+ * __next__. Anything else is iterated with its __iter__ and __next__
+ * methods.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import jcoco.PyException.ExceptionType;
+
+final class PyIterables {
+
+    private PyIterables() {
+    }
+
+    // Iterates by index over a sequence whose length may change while it is
+    // being iterated, the way a list iterator does.
+    private abstract static class Indexed implements Iterator<PyObject> {
+
+        protected int index;
+
+        protected abstract int size();
+
+        protected abstract PyObject get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return this.index < size();
+        }
+
+        @Override
+        public PyObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return get(this.index++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Iterates over a sequence of a fixed length from its last element to
+    // its first.
+    private abstract static class Backward implements Iterator<PyObject> {
+
+        private int index;
+
+        Backward(int size) {
+            this.index = size - 1;
+        }
+
+        protected abstract PyObject get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return this.index >= 0;
+        }
+
+        @Override
+        public PyObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return get(this.index--);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Iterates with __iter__ and __next__, reading one element ahead so
+    // hasNext can tell when __next__ raises StopIteration.
+    private static final class Protocol implements Iterator<PyObject> {
+
+        private final PyObject iterator;
+        private final ArrayList<PyObject> args = new ArrayList<PyObject>();
+        private PyObject next;
+        private boolean done;
+
+        Protocol(PyObject iterable) {
+            this.iterator = iterable.callMethod("__iter__", this.args);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next == null && !this.done) {
+                try {
+                    this.next = this.iterator.callMethod("__next__", this.args);
+                } catch (PyException e) {
+                    if (e.getExceptionType() != ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                        throw e;
+                    }
+                    this.done = true;
+                }
+            }
+
+            return this.next != null;
+        }
+
+        @Override
+        public PyObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            PyObject result = this.next;
+            this.next = null;
+
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class FingerTreeIterator implements Iterator<PyObject> {
+
+        private PyFingerTree rest;
+        private final boolean reverse;
+
+        FingerTreeIterator(PyFingerTree tree, boolean reverse) {
+            this.rest = tree;
+            this.reverse = reverse;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.rest.isEmpty();
+        }
+
+        @Override
+        public PyObject next() {
+            if (this.rest.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+
+            PyObject item;
+
+            if (this.reverse) {
+                item = (PyObject) this.rest.headRight();
+                this.rest = this.rest.tailRight();
+            } else {
+                item = (PyObject) this.rest.headLeft();
+                this.rest = this.rest.tailLeft();
+            }
+
+            return item;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * An iterator over the elements of any iterable.
+     */
+    static Iterator<PyObject> iterator(final PyObject iterable) {
+        if (iterable instanceof PyList) {
+            final PyList list = (PyList) iterable;
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return list.len();
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return list.getVal(index);
+                }
+            };
+        }
+
+        if (iterable instanceof PyTuple) {
+            return ((PyTuple) iterable).data.iterator();
+        }
+
+        if (iterable instanceof PyRange) {
+            final PyRange range = (PyRange) iterable;
+            final int size = range.len();
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return size;
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return range.indexOf(index);
+                }
+            };
+        }
+
+        if (iterable instanceof PyStr) {
+            final String s = iterable.str();
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return s.length();
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return PyStr.valueOf(s.charAt(index));
+                }
+            };
+        }
+
+        if (iterable instanceof PyBytes) {
+            final PyBytes bytes = (PyBytes) iterable;
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return bytes.len();
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return new PyInt(bytes.get(index));
+                }
+            };
+        }
+
+        if (iterable instanceof PyMemoryView) {
+            final PyMemoryView view = (PyMemoryView) iterable;
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return view.len();
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return new PyInt(view.get(index));
+                }
+            };
+        }
+
+        if (iterable instanceof PyDeque) {
+            return ((PyDeque) iterable).iterator(false);
+        }
+
+        if (iterable instanceof PyArray) {
+            final PyArray array = (PyArray) iterable;
+
+            return new Indexed() {
+                @Override
+                protected int size() {
+                    return array.len();
+                }
+
+                @Override
+                protected PyObject get(int index) {
+                    return array.get(index);
+                }
+            };
+        }
+
+        if (iterable instanceof PyFunList) {
+            return new FingerTreeIterator(((PyFunList) iterable).tree(), false);
+        }
+
+        if (iterable instanceof PyLazyIterator) {
+            return ((PyLazyIterator) iterable).source();
+        }
+
+        return new Protocol(iterable);
+    }
+
+    /**
+     * An iterator over the elements of a sequence from last to first, for
+     * the reversed built-in.
+     */
+    static Iterator<PyObject> reversed(final PyObject sequence) {
+        if (sequence instanceof PyList) {
+            final PyList list = (PyList) sequence;
+
+            // Like Python's list_reverseiterator, this stops early rather
+            // than failing if the list gets shorter.
+            return new Iterator<PyObject>() {
+                private int index = list.len() - 1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.index >= 0 && this.index < list.len();
+                }
+
+                @Override
+                public PyObject next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return list.getVal(this.index--);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        if (sequence instanceof PyFunList) {
+            return new FingerTreeIterator(((PyFunList) sequence).tree(), true);
+        }
+
+        if (sequence instanceof PyRange) {
+            return iterator(((PyRange) sequence).reversed());
+        }
+
+        if (sequence instanceof PyTuple) {
+            final PyTuple tuple = (PyTuple) sequence;
+
+            return new Backward(tuple.size()) {
+                @Override
+                protected PyObject get(int index) {
+                    return tuple.getVal(index);
+                }
+            };
+        }
+
+        if (sequence instanceof PyBytes) {
+            final PyBytes bytes = (PyBytes) sequence;
+
+            return new Backward(bytes.len()) {
+                @Override
+                protected PyObject get(int index) {
+                    return new PyInt(bytes.get(index));
+                }
+            };
+        }
+
+        if (sequence instanceof PyDeque) {
+            return ((PyDeque) sequence).iterator(true);
+        }
+
+        if (sequence instanceof PyArray) {
+            final PyArray array = (PyArray) sequence;
+
+            return new Backward(array.len()) {
+                @Override
+                protected PyObject get(int index) {
+                    return array.get(index);
+                }
+            };
+        }
+
+        if (sequence instanceof PyStr) {
+            final String s = sequence.str();
+
+            return new Backward(s.length()) {
+                @Override
+                protected PyObject get(int index) {
+                    return PyStr.valueOf(s.charAt(index));
+                }
+            };
+        }
+
+        PyObject method = attribute(sequence, "__reversed__");
+
+        if (method != null) {
+            return new Protocol(call(method));
+        }
+
+        if (attribute(sequence, "__len__") == null || attribute(sequence, "__getitem__") == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: argument to reversed() must be a sequence");
+        }
+
+        int size = ((PyInt) sequence.callMethod("__len__", new ArrayList<PyObject>())).getVal();
+
+        return new Backward(size) {
+            @Override
+            protected PyObject get(int index) {
+                ArrayList<PyObject> args = new ArrayList<PyObject>();
+                args.add(new PyInt(index));
+
+                return sequence.callMethod("__getitem__", args);
+            }
+        };
+    }
+
+    // The attribute of the object with the given name, or null if it has
+    // none.
+    private static PyObject attribute(PyObject obj, String name) {
+        try {
+            return obj.get(name);
+        } catch (PyException e) {
+            if (e.getExceptionType() == ExceptionType.PYATTRERROR) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Calls a function with the given arguments, which are passed in
+     * reverse order as CALL_FUNCTION does.
+     */
+    static PyObject call(PyObject fun, PyObject... items) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(items.length);
+
+        for (int k = items.length - 1; k >= 0; k--) {
+            args.add(items[k]);
+        }
+
+        return fun.callMethod("__call__", args);
+    }
+}
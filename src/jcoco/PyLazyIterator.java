@@ -0,0 +1,74 @@
+/**
+ * PyLazyIterator.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The iterators returned by map, filter, zip, enumerate, and reversed, and
+ * by iter on an array, a deque, or a bytes-like object. Each one wraps a
+ * java Iterator that computes the next element only when it is asked for, so
+ * a pipeline of them over a large iterable never holds more than one element
+ * at a time. The name and type id say what made the iterator.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import jcoco.PyType.PyTypeId;
+
+public class PyLazyIterator extends PyPrimitiveTypeAdapter {
+
+    private final Iterator<PyObject> source;
+
+    PyLazyIterator(String name, PyTypeId typeId, Iterator<PyObject> source) {
+        super(name, typeId, true);
+        this.source = source;
+    }
+
+    Iterator<PyObject> source() {
+        return this.source;
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                return args.get(args.size() - 1);
+            }
+        });
+
+        funs.put("__next__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyLazyIterator self = (PyLazyIterator) args.get(args.size() - 1);
+
+                if (!self.source.hasNext()) {
+                    throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+                }
+
+                return self.source.next();
+            }
+        });
+
+        return funs;
+    }
+}
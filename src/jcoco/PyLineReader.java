@@ -0,0 +1,234 @@
+/**
+ * PyLineReader.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Reads the text of a file opened in mode 'r', and of the standard input.
+ * Bytes are read from a channel a large block at a time and decoded into a
+ * char buffer, and a line is made into a string straight from that buffer
+ * once its newline is found. Like Python's text files, "\r\n" and a lone
+ * '\r' are read as '\n', and lines keep their newline, so the last line of
+ * a file that does not end with a newline comes back without one.
+ *
+ * Both buffers are made once and used for the whole file, so reading a line
+ * costs no more than finding its newline and copying its chars into a string.
+ */
+package jcoco;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+
+final class PyLineReader implements PyTextReader {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel in;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    // The chars decoded and not yet read are those between the position and
+    // the limit.
+    private final CharBuffer chars;
+    private boolean eof = false;
+    private boolean flushed = false;
+    // True when the last char read was a '\r', so a '\n' right after it is
+    // part of the same newline.
+    private boolean skipLF = false;
+
+    PyLineReader(ReadableByteChannel in, Charset charset) {
+        this.in = in;
+        // Like the Scanner this replaces, bytes that are not valid in the
+        // charset are read as the replacement char.
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.chars.flip();
+    }
+
+    // Decodes more chars into the buffer, reading from the channel as
+    // needed. Returns false if there are no chars left to read.
+    private boolean fill() {
+        if (this.chars.hasRemaining()) {
+            return true;
+        }
+
+        this.chars.clear();
+
+        try {
+            while (this.chars.position() == 0 && !this.flushed) {
+                if (!this.eof && this.in.read(this.bytes) < 0) {
+                    this.eof = true;
+                }
+
+                this.bytes.flip();
+                CoderResult result = this.decoder.decode(this.bytes, this.chars, this.eof);
+                this.bytes.compact();
+
+                if (this.eof && result.isUnderflow()) {
+                    this.decoder.flush(this.chars);
+                    this.flushed = true;
+                }
+            }
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        } finally {
+            this.chars.flip();
+        }
+
+        return this.chars.hasRemaining();
+    }
+
+    // Reads past the '\n' of a "\r\n" whose '\r' ended the last read.
+    private void skipLineFeed() {
+        if (this.skipLF) {
+            this.skipLF = false;
+
+            if (fill() && this.chars.get(this.chars.position()) == '\n') {
+                this.chars.position(this.chars.position() + 1);
+            }
+        }
+    }
+
+    // Appends the chars from start to end of the array with their newlines
+    // made into '\n', given whether the char before start was a '\r'.
+    // Returns whether the last of them is a '\r'.
+    static boolean translate(StringBuilder out, char[] array, int start, int end, boolean skipLF) {
+        int run = start;
+
+        for (int k = start; k < end; k++) {
+            char c = array[k];
+
+            if (c == '\r') {
+                out.append(array, run, k - run).append('\n');
+                run = k + 1;
+                skipLF = true;
+            } else {
+                if (c == '\n' && skipLF) {
+                    run = k + 1;
+                }
+
+                skipLF = false;
+            }
+        }
+
+        out.append(array, run, end - run);
+
+        return skipLF;
+    }
+
+    /**
+     * True if everything has been read.
+     */
+    @Override
+    public boolean atEnd() {
+        skipLineFeed();
+
+        return !fill();
+    }
+
+    /**
+     * The next line, ending with its newline if it has one, or the empty
+     * string at the end of the file.
+     */
+    @Override
+    public String readLine() {
+        StringBuilder partial = null;
+
+        skipLineFeed();
+
+        while (fill()) {
+            char[] array = this.chars.array();
+            int start = this.chars.position();
+            int limit = this.chars.limit();
+
+            for (int k = start; k < limit; k++) {
+                char c = array[k];
+
+                if (c == '\n' || c == '\r') {
+                    // The newline is made a '\n' in place, since the buffer
+                    // is read past it.
+                    array[k] = '\n';
+                    this.chars.position(k + 1);
+                    this.skipLF = c == '\r';
+
+                    if (partial == null) {
+                        return new String(array, start, k + 1 - start);
+                    }
+
+                    return partial.append(array, start, k + 1 - start).toString();
+                }
+            }
+
+            // The line goes on past the chars in the buffer.
+            if (partial == null) {
+                partial = new StringBuilder(2 * (limit - start));
+            }
+
+            partial.append(array, start, limit - start);
+            this.chars.position(limit);
+        }
+
+        return partial == null ? "" : partial.toString();
+    }
+
+    /**
+     * Up to count chars, fewer if the file ends first. A negative count
+     * reads the rest of the file.
+     */
+    @Override
+    public String read(int count) {
+        StringBuilder result = new StringBuilder(count < 0 ? BUFFER_SIZE : Math.min(count, BUFFER_SIZE));
+
+        while ((count < 0 || result.length() < count) && fill()) {
+            int n = this.chars.remaining();
+
+            if (count >= 0) {
+                n = Math.min(n, count - result.length());
+            }
+
+            int start = this.chars.position();
+
+            this.skipLF = translate(result, this.chars.array(), start, start + n, this.skipLF);
+            this.chars.position(start + n);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * The rest of the lines.
+     */
+    @Override
+    public ArrayList<PyObject> readLines() {
+        ArrayList<PyObject> lines = new ArrayList<PyObject>();
+
+        while (!atEnd()) {
+            lines.add(new PyStr(readLine()));
+        }
+
+        return lines;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.in.close();
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+    }
+}
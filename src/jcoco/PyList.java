@@ -10,9 +10,16 @@
  * Description:
  * The PyList class implements lists similarly to the way they are
  * implemented in Python. PyLists have O(1) access time to any element
- * of the list. They are implemented using the java ArrayList class so they
- * exhibit the same characteristics as a java ArrayList. For instance,
- * appending to a PyList has the same running time as the ArrayList add method.
+ * of the list and appending to a PyList takes amortized O(1) time.
+ *
+ * The elements are held by a PyListStorage. Lists of only ints, floats, or
+ * strs store the raw Java values in an array, as PyPy's list strategies do,
+ * and any other list stores its PyObjects in a java ArrayList. A list changes
+ * to the general ArrayList storage the first time an element of another type
+ * is stored in it.
+ *
+ * Slicing a list (x[start:stop:step]) makes a new list that shares the
+ * elements of the old one until either of them is changed.
  */
 package jcoco;
 
@@ -23,54 +30,197 @@ import jcoco.PyType.PyTypeId;
 
 public class PyList extends PyPrimitiveTypeAdapter {
 
-    private ArrayList<PyObject> data;
+    private PyListStorage storage;
 
     public PyList(ArrayList<PyObject> data) {
         super("list", PyTypeId.PyListType);
-        this.data = data;
+        this.storage = PyListStorage.of(data);
+        initMethods(funs());
+    }
+
+    PyList(PyListStorage storage) {
+        super("list", PyTypeId.PyListType);
+        this.storage = storage;
         initMethods(funs());
     }
 
+    /**
+     * Builds a new list from any iterable object.
+     */
+    public static PyList of(PyObject iterable) {
+        if (iterable instanceof PyList) {
+            return new PyList(((PyList) iterable).storage.copy());
+        }
+
+        ArrayList<PyObject> result = new ArrayList<PyObject>();
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        PyObject it = iterable.callMethod("__iter__", args);
+
+        while (true) {
+            try {
+                result.add(it.callMethod("__next__", args));
+            } catch (PyException e) {
+                if (e.getExceptionType() == ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                    return new PyList(result);
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Called before the list is changed in place. A storage that a slice
+    // still refers to is copied first so the slice does not see the change.
+    private void writable() {
+        if (this.storage.shared) {
+            this.storage = this.storage.copy();
+        }
+    }
+
     public PyObject getVal(int index) {
-        if (index >= this.data.size()) {
+        if (index >= this.storage.size()) {
             throw new PyException(ExceptionType.PYSTOPITERATIONEXCEPTION,
                     "Stop iteration: index out of range");
         }
-        return this.data.get(index);
+        return this.storage.get(index);
     }
 
     public void setVal(int index, PyObject val) {
-        this.data.set(index, val);
+        writable();
+        this.storage = this.storage.set(index, val);
+    }
+
+    public void append(PyObject val) {
+        writable();
+        this.storage = this.storage.add(val);
+    }
+
+    /**
+     * Removes and returns the last element.
+     */
+    public PyObject pop() {
+        if (this.storage.size() == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: pop from empty list");
+        }
+
+        writable();
+        PyObject last = this.storage.get(this.storage.size() - 1);
+        this.storage = this.storage.removeLast();
+
+        return last;
+    }
+
+    // The storage, made ready to be changed in place. PyHeap sifts the
+    // elements of a heap around in it directly.
+    PyListStorage heap() {
+        writable();
+        this.storage = this.storage.flat();
+
+        return this.storage;
+    }
+
+    public boolean contains(PyObject val) {
+        return this.storage.indexOf(val) >= 0;
     }
 
     public int len() {
-        return this.data.size();
+        return this.storage.size();
     }
 
+    /**
+     * Returns the elements as an ArrayList that may be changed directly. This
+     * switches the list to the general storage, so it should only be used
+     * when the specialized methods above will not do.
+     */
     public ArrayList<PyObject> list() {
-        return this.data;
+        writable();
+        PyListStorage.ObjectStorage objects = this.storage.generalize();
+        this.storage = objects;
+
+        return objects.list();
+    }
+
+    /**
+     * Sorts the list in place, by the values of the key function if key is
+     * not null.
+     */
+    public void sort(PyObject key, boolean reverse) {
+        writable();
+
+        if (key == null) {
+            this.storage = this.storage.sort(reverse);
+        } else {
+            this.storage = PySort.sortByKey(this.storage, key, reverse);
+        }
+    }
+
+    public PyList slice(PySlice slice) {
+        int[] indices = slice.indices(len());
+
+        return new PyList(this.storage.slice(indices[0], indices[2], indices[3]));
+    }
+
+    /**
+     * Replaces the elements of a slice with the values of an iterable. A
+     * slice with a step of 1 may be replaced by any number of values, which
+     * changes the length of the list.
+     */
+    public void setSlice(PySlice slice, PyObject value) {
+        int[] indices = slice.indices(len());
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+        PyList values = PyList.of(value);
+
+        if (step == 1) {
+            ArrayList<PyObject> result = new ArrayList<PyObject>(len() - count + values.len());
+
+            for (int k = 0; k < start; k++) {
+                result.add(getVal(k));
+            }
+
+            for (int k = 0; k < values.len(); k++) {
+                result.add(values.getVal(k));
+            }
+
+            for (int k = start + count; k < len(); k++) {
+                result.add(getVal(k));
+            }
+
+            this.storage = PyListStorage.of(result);
+            return;
+        }
+
+        if (values.len() != count) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: attempt to assign sequence of size " + values.len()
+                    + " to extended slice of size " + count);
+        }
+
+        for (int k = 0; k < count; k++) {
+            setVal(start + k * step, values.getVal(k));
+        }
     }
 
     @Override
     public String str() {
-        String str = "[";
-        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        StringBuilder str = new StringBuilder("[");
         try {
-            for (int i = 0; i < this.data.size(); i++) {
+            for (int i = 0; i < this.storage.size(); i++) {
 
-                str += ((PyStr) this.data.get(i).callMethod("__repr__", args)).str();
+                this.storage.appendRepr(str, i);
 
-                if (i < data.size() - 1) {
-                    str += ", ";
+                if (i < this.storage.size() - 1) {
+                    str.append(", ");
                 }
             }
         } catch (PyException e) {
             System.err.println(e.getMessage());
             e.printTraceBack();
         }
-        str += "]";
+        str.append("]");
 
-        return str;
+        return str.toString();
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -85,6 +235,11 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyList self = (PyList) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
                 PyInt intObj = (PyInt) args.get(0);
 
                 return self.getVal(intObj.getVal());
@@ -99,10 +254,16 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyList self = (PyList) args.get(args.size() - 1);
+
+                if (args.get(1) instanceof PySlice) {
+                    self.setSlice((PySlice) args.get(1), args.get(0));
+                    return new PyNone();
+                }
+
                 PyInt index = (PyInt) args.get(1);
 
-                if (index.getVal() >= self.data.size()) {
-                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "List index out of bounds, size=" + self.data.size() + ", index=" + index.str());
+                if (index.getVal() >= self.len()) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "List index out of bounds, size=" + self.len() + ", index=" + index.str());
                 }
                 //set the object at the index of the first argument to the second arg
                 self.setVal(index.getVal(), args.get(0));
@@ -119,7 +280,7 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyList self = (PyList) args.get(args.size() - 1);
-                return new PyInt(self.data.size());
+                return new PyInt(self.len());
             }
         });
         funs.put("__iter__", new PyCallableAdapter() {
@@ -144,7 +305,27 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
 
                 PyList self = (PyList) args.get(args.size() - 1);
-                self.data.add(args.get(0));
+                self.append(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("sort", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() > 3) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 to 3 arguments, got " + args.size());
+                }
+
+                // The key and reverse arguments are positional:
+                // list.sort([key[, reverse]]).
+                PyList self = (PyList) args.get(args.size() - 1);
+                PyObject key = args.size() > 1 ? args.get(args.size() - 2) : null;
+                boolean reverse = args.size() > 2 && PyBool.isTrue(args.get(0));
+
+                self.sort(key instanceof PyNone ? null : key, reverse);
 
                 return new PyNone();
             }
@@ -167,9 +348,7 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
                 PyList other = (PyList) arg;
 
-                ArrayList<PyObject> result = (ArrayList<PyObject>) self.data.clone();
-                result.addAll(other.data);
-                return new PyList(result);
+                return new PyList(self.storage.flat().concat(other.storage.flat()));
             }
         });
 
@@ -190,13 +369,7 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 }
                 PyInt other = (PyInt) arg;
 
-                ArrayList<PyObject> result = new ArrayList<PyObject>();
-
-                for (int k = 0; k < other.getVal(); k++) {
-                    result.addAll(self.data);
-                }
-
-                return new PyList(result);
+                return new PyList(self.storage.repeat(Math.max(other.getVal(), 0)));
             }
         });
 
@@ -218,13 +391,20 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 PyList other = (PyList) args.get(0);
                 ArrayList<PyObject> newargs = new ArrayList<PyObject>();
 
-                if (self.data.size() != other.data.size()) {
+                if (self.len() != other.len()) {
                     return new PyBool(false);
                 }
 
-                for (int i = 0; i < self.data.size(); i++) {
-                    newargs.add(other.data.get(i));
-                    PyBool result = (PyBool) self.data.get(i).callMethod("__eq__", newargs);
+                //Lists with the same storage strategy are compared directly.
+                Boolean same = self.storage.flat().sameElements(other.storage.flat());
+
+                if (same != null) {
+                    return new PyBool(same);
+                }
+
+                for (int i = 0; i < self.len(); i++) {
+                    newargs.add(other.getVal(i));
+                    PyBool result = (PyBool) self.getVal(i).callMethod("__eq__", newargs);
                     if (!result.getVal()) {
                         return result;
                     }
@@ -21,9 +21,8 @@ public class PyListIterator extends PyPrimitiveTypeAdapter {
     private int index = 0;
 
     public PyListIterator(PyList lst) {
-        super("list_iterator", PyType.PyTypeId.PyListIteratorType);
+        super("list_iterator", PyType.PyTypeId.PyListIteratorType, true);
         this.lst = lst;
-        initMethods(funs());
 
     }
 
@@ -56,7 +55,7 @@ public class PyListIterator extends PyPrimitiveTypeAdapter {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
                 }
 
-                return self.lst.list().get(self.index++);
+                return self.lst.getVal(self.index++);
             }
         });
 
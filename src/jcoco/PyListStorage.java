@@ -0,0 +1,1000 @@
+/**
+ * PyListStorage.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The storage strategies behind PyList. A list whose elements are all ints,
+ * all floats, or all strs keeps them unboxed in an int[], double[], or
+ * String[] and only creates the PyInt, PyFloat, or PyStr when an element is
+ * read. A list holding anything else (or a mix) uses ObjectStorage, a plain
+ * ArrayList of PyObjects.
+ *
+ * Operations that may have to change the strategy (set, add, and concat)
+ * return the storage the list should use from then on. The first write of
+ * an element the current strategy cannot hold converts the list to
+ * ObjectStorage, and it stays that way. An empty list simply adopts the
+ * strategy of the first element added to it.
+ *
+ * Slicing a list does not copy it. The slice gets a SliceStorage, a read-only
+ * view (an offset, a step, and a length) of the storage it was taken from,
+ * and that storage is marked as shared. The view is copied the first time the
+ * slice is changed, and PyList copies a shared storage before changing it, so
+ * neither list ever sees the other's changes.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+abstract class PyListStorage {
+
+    protected int size;
+
+    // Set once a slice of this storage has been taken.
+    protected boolean shared;
+
+    public static PyListStorage of(ArrayList<PyObject> data) {
+        if (data.isEmpty()) {
+            return new ObjectStorage(data);
+        }
+
+        PyListStorage storage = forElement(data.get(0), data.size());
+
+        for (int k = 0; k < data.size(); k++) {
+            if (!storage.accepts(data.get(k))) {
+                return new ObjectStorage(data);
+            }
+        }
+
+        for (int k = 0; k < data.size(); k++) {
+            storage.append(data.get(k));
+        }
+
+        return storage;
+    }
+
+    // Stores the ints without boxing them first.
+    static PyListStorage ofInts(int[] values) {
+        IntStorage storage = new IntStorage(0);
+        storage.data = values;
+        storage.size = values.length;
+
+        return storage;
+    }
+
+    private static PyListStorage forElement(PyObject x, int capacity) {
+        if (x instanceof PyInt) {
+            return new IntStorage(capacity);
+        }
+
+        if (x instanceof PyFloat) {
+            return new FloatStorage(capacity);
+        }
+
+        if (x instanceof PyStr) {
+            return new StrStorage(capacity);
+        }
+
+        return new ObjectStorage(new ArrayList<PyObject>(capacity));
+    }
+
+    protected static int grow(int capacity, int needed) {
+        return Math.max(needed, capacity + (capacity >> 1) + 8);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public abstract PyObject get(int index);
+
+    // Whether x can be stored without changing the strategy.
+    protected abstract boolean accepts(PyObject x);
+
+    // Stores x, which the strategy is known to accept.
+    protected abstract void append(PyObject x);
+
+    protected abstract void put(int index, PyObject x);
+
+    // Drops the elements from index size on.
+    protected abstract void truncate(int size);
+
+    public abstract PyListStorage copy();
+
+    public PyListStorage set(int index, PyObject x) {
+        if (accepts(x)) {
+            put(index, x);
+            return this;
+        }
+
+        PyListStorage storage = generalize();
+        storage.put(index, x);
+
+        return storage;
+    }
+
+    public PyListStorage add(PyObject x) {
+        if (accepts(x)) {
+            append(x);
+            return this;
+        }
+
+        PyListStorage storage = this.size == 0 ? forElement(x, 8) : generalize();
+        storage.append(x);
+
+        return storage;
+    }
+
+    /**
+     * Returns a new storage holding the elements of this one followed by
+     * those of other. Two storages with the same strategy are copied in
+     * bulk.
+     */
+    public PyListStorage concat(PyListStorage other) {
+        ArrayList<PyObject> result = new ArrayList<PyObject>(size() + other.size());
+
+        for (int k = 0; k < size(); k++) {
+            result.add(get(k));
+        }
+
+        for (int k = 0; k < other.size(); k++) {
+            result.add(other.get(k));
+        }
+
+        return new ObjectStorage(result);
+    }
+
+    public abstract PyListStorage repeat(int times);
+
+    /**
+     * Returns a read-only view of count elements, the first at start and the
+     * rest step apart.
+     */
+    public PyListStorage slice(int start, int step, int count) {
+        if (count == 0) {
+            return new ObjectStorage(new ArrayList<PyObject>());
+        }
+
+        this.shared = true;
+
+        return new SliceStorage(this, start, step, count);
+    }
+
+    // Copies the elements of a slice into a new storage with this strategy.
+    protected abstract PyListStorage copyRange(int start, int step, int count);
+
+    // The storage itself or, for a slice, a copy that the strategies above
+    // can work on directly.
+    public PyListStorage flat() {
+        return this;
+    }
+
+    /**
+     * Compares the elements of two storages with the same strategy directly.
+     * Returns null if the strategies differ and the elements must be
+     * compared with __eq__.
+     */
+    public abstract Boolean sameElements(PyListStorage other);
+
+    public int indexOf(PyObject x) {
+        for (int k = 0; k < size(); k++) {
+            if (PyHashTable.keysEqual(x, get(k))) {
+                return k;
+            }
+        }
+
+        return -1;
+    }
+
+    public ObjectStorage generalize() {
+        ArrayList<PyObject> data = new ArrayList<PyObject>(Math.max(size(), 8));
+
+        for (int k = 0; k < size(); k++) {
+            data.add(get(k));
+        }
+
+        return new ObjectStorage(data);
+    }
+
+    public void appendRepr(StringBuilder s, int index) {
+        s.append(get(index).callMethod("__repr__", new ArrayList<PyObject>()).str());
+    }
+
+    /**
+     * Sorts the elements and returns the storage the list should use from
+     * then on. The unboxed strategies sort their arrays directly.
+     */
+    public PyListStorage sort(boolean reverse) {
+        ObjectStorage objects = generalize();
+        PySort.sort(objects.list(), reverse);
+
+        return objects;
+    }
+
+    /**
+     * Removes the last element and returns the storage the list should use
+     * from then on.
+     */
+    public PyListStorage removeLast() {
+        truncate(size() - 1);
+
+        return this;
+    }
+
+    /**
+     * Moves the element at pos toward the root, stopping at start, until its
+     * parent is no greater than it. This and siftUp are the heap operations
+     * of the heapq module (CPython's _siftdown and _siftup), which keep each
+     * element no greater than its children at 2k+1 and 2k+2. The int and
+     * float strategies compare their raw values; here elements are compared
+     * with PyTuple.lessThan, which handles numbers, strs, and tuples without
+     * calling __lt__.
+     */
+    public void siftDown(int start, int pos) {
+        PyObject x = get(pos);
+
+        while (pos > start) {
+            int parent = (pos - 1) >> 1;
+            PyObject p = get(parent);
+
+            if (!PyTuple.lessThan(x, p)) {
+                break;
+            }
+
+            put(pos, p);
+            pos = parent;
+        }
+
+        put(pos, x);
+    }
+
+    // Moves the smaller child up into the hole at pos until the hole reaches
+    // a leaf, then puts the element that was at pos there and sifts it down
+    // to where it belongs. This makes fewer comparisons than stopping as
+    // soon as the element is in order, since it usually belongs low.
+    public void siftUp(int pos) {
+        int end = size();
+        int start = pos;
+        PyObject x = get(pos);
+        int child = 2 * pos + 1;
+
+        while (child < end) {
+            int right = child + 1;
+
+            if (right < end && !PyTuple.lessThan(get(child), get(right))) {
+                child = right;
+            }
+
+            put(pos, get(child));
+            pos = child;
+            child = 2 * pos + 1;
+        }
+
+        put(pos, x);
+        siftDown(start, pos);
+    }
+
+    static final class IntStorage extends PyListStorage {
+
+        private int[] data;
+
+        IntStorage(int capacity) {
+            this.data = new int[capacity];
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return new PyInt(this.data[index]);
+        }
+
+        @Override
+        protected boolean accepts(PyObject x) {
+            return x instanceof PyInt;
+        }
+
+        @Override
+        protected void append(PyObject x) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, grow(this.data.length, this.size + 1));
+            }
+
+            this.data[this.size++] = ((PyInt) x).getVal();
+        }
+
+        @Override
+        protected void put(int index, PyObject x) {
+            this.data[index] = ((PyInt) x).getVal();
+        }
+
+        @Override
+        protected void truncate(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void siftDown(int start, int pos) {
+            int x = this.data[pos];
+
+            while (pos > start) {
+                int parent = (pos - 1) >> 1;
+
+                if (!(x < this.data[parent])) {
+                    break;
+                }
+
+                this.data[pos] = this.data[parent];
+                pos = parent;
+            }
+
+            this.data[pos] = x;
+        }
+
+        @Override
+        public void siftUp(int pos) {
+            int start = pos;
+            int x = this.data[pos];
+            int child = 2 * pos + 1;
+
+            while (child < this.size) {
+                int right = child + 1;
+
+                if (right < this.size && !(this.data[child] < this.data[right])) {
+                    child = right;
+                }
+
+                this.data[pos] = this.data[child];
+                pos = child;
+                child = 2 * pos + 1;
+            }
+
+            this.data[pos] = x;
+            siftDown(start, pos);
+        }
+
+        @Override
+        public PyListStorage copy() {
+            IntStorage result = new IntStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size);
+            result.size = this.size;
+
+            return result;
+        }
+
+        @Override
+        protected PyListStorage copyRange(int start, int step, int count) {
+            IntStorage result = new IntStorage(count);
+
+            if (step == 1) {
+                System.arraycopy(this.data, start, result.data, 0, count);
+            } else {
+                for (int k = 0; k < count; k++) {
+                    result.data[k] = this.data[start + k * step];
+                }
+            }
+            result.size = count;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage concat(PyListStorage other) {
+            if (!(other instanceof IntStorage)) {
+                return super.concat(other);
+            }
+
+            IntStorage result = new IntStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size + other.size);
+            System.arraycopy(((IntStorage) other).data, 0, result.data, this.size, other.size);
+            result.size = this.size + other.size;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage repeat(int times) {
+            IntStorage result = new IntStorage(this.size * times);
+
+            for (int k = 0; k < times; k++) {
+                System.arraycopy(this.data, 0, result.data, k * this.size, this.size);
+            }
+            result.size = this.size * times;
+
+            return result;
+        }
+
+        @Override
+        public Boolean sameElements(PyListStorage other) {
+            if (!(other instanceof IntStorage)) {
+                return null;
+            }
+
+            int[] otherData = ((IntStorage) other).data;
+
+            for (int k = 0; k < this.size; k++) {
+                if (this.data[k] != otherData[k]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int indexOf(PyObject x) {
+            int val;
+
+            if (x instanceof PyInt) {
+                val = ((PyInt) x).getVal();
+            } else if (x instanceof PyBool) {
+                val = ((PyBool) x).getIntVal();
+            } else if (x instanceof PyFloat && ((PyFloat) x).getVal() == (int) ((PyFloat) x).getVal()) {
+                val = (int) ((PyFloat) x).getVal();
+            } else {
+                return super.indexOf(x);
+            }
+
+            for (int k = 0; k < this.size; k++) {
+                if (this.data[k] == val) {
+                    return k;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public void appendRepr(StringBuilder s, int index) {
+            s.append(this.data[index]);
+        }
+
+        @Override
+        public PyListStorage sort(boolean reverse) {
+            Arrays.sort(this.data, 0, this.size);
+
+            if (reverse) {
+                for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+                    int x = this.data[i];
+                    this.data[i] = this.data[j];
+                    this.data[j] = x;
+                }
+            }
+
+            return this;
+        }
+    }
+
+    static final class FloatStorage extends PyListStorage {
+
+        private double[] data;
+
+        FloatStorage(int capacity) {
+            this.data = new double[capacity];
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return new PyFloat(this.data[index]);
+        }
+
+        @Override
+        protected boolean accepts(PyObject x) {
+            return x instanceof PyFloat;
+        }
+
+        @Override
+        protected void append(PyObject x) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, grow(this.data.length, this.size + 1));
+            }
+
+            this.data[this.size++] = ((PyFloat) x).getVal();
+        }
+
+        @Override
+        protected void put(int index, PyObject x) {
+            this.data[index] = ((PyFloat) x).getVal();
+        }
+
+        @Override
+        protected void truncate(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void siftDown(int start, int pos) {
+            double x = this.data[pos];
+
+            while (pos > start) {
+                int parent = (pos - 1) >> 1;
+
+                if (!(x < this.data[parent])) {
+                    break;
+                }
+
+                this.data[pos] = this.data[parent];
+                pos = parent;
+            }
+
+            this.data[pos] = x;
+        }
+
+        @Override
+        public void siftUp(int pos) {
+            int start = pos;
+            double x = this.data[pos];
+            int child = 2 * pos + 1;
+
+            while (child < this.size) {
+                int right = child + 1;
+
+                if (right < this.size && !(this.data[child] < this.data[right])) {
+                    child = right;
+                }
+
+                this.data[pos] = this.data[child];
+                pos = child;
+                child = 2 * pos + 1;
+            }
+
+            this.data[pos] = x;
+            siftDown(start, pos);
+        }
+
+        @Override
+        public PyListStorage copy() {
+            FloatStorage result = new FloatStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size);
+            result.size = this.size;
+
+            return result;
+        }
+
+        @Override
+        protected PyListStorage copyRange(int start, int step, int count) {
+            FloatStorage result = new FloatStorage(count);
+
+            if (step == 1) {
+                System.arraycopy(this.data, start, result.data, 0, count);
+            } else {
+                for (int k = 0; k < count; k++) {
+                    result.data[k] = this.data[start + k * step];
+                }
+            }
+            result.size = count;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage concat(PyListStorage other) {
+            if (!(other instanceof FloatStorage)) {
+                return super.concat(other);
+            }
+
+            FloatStorage result = new FloatStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size + other.size);
+            System.arraycopy(((FloatStorage) other).data, 0, result.data, this.size, other.size);
+            result.size = this.size + other.size;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage repeat(int times) {
+            FloatStorage result = new FloatStorage(this.size * times);
+
+            for (int k = 0; k < times; k++) {
+                System.arraycopy(this.data, 0, result.data, k * this.size, this.size);
+            }
+            result.size = this.size * times;
+
+            return result;
+        }
+
+        @Override
+        public Boolean sameElements(PyListStorage other) {
+            if (!(other instanceof FloatStorage)) {
+                return null;
+            }
+
+            double[] otherData = ((FloatStorage) other).data;
+
+            for (int k = 0; k < this.size; k++) {
+                if (this.data[k] != otherData[k]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public void appendRepr(StringBuilder s, int index) {
+            s.append(PyFloatFormatter.format(this.data[index]));
+        }
+
+        @Override
+        public PyListStorage sort(boolean reverse) {
+            // Arrays.sort orders -0.0 before 0.0 and puts NaNs last, but
+            // Python's sort leaves equal elements where they were, so lists
+            // with these are sorted as objects.
+            for (int k = 0; k < this.size; k++) {
+                if (Double.isNaN(this.data[k]) || (this.data[k] == 0 && 1 / this.data[k] < 0)) {
+                    return super.sort(reverse);
+                }
+            }
+
+            Arrays.sort(this.data, 0, this.size);
+
+            if (reverse) {
+                for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+                    double x = this.data[i];
+                    this.data[i] = this.data[j];
+                    this.data[j] = x;
+                }
+            }
+
+            return this;
+        }
+    }
+
+    static final class StrStorage extends PyListStorage {
+
+        private String[] data;
+
+        StrStorage(int capacity) {
+            this.data = new String[capacity];
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return new PyStr(this.data[index]);
+        }
+
+        @Override
+        protected boolean accepts(PyObject x) {
+            return x instanceof PyStr;
+        }
+
+        @Override
+        protected void append(PyObject x) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, grow(this.data.length, this.size + 1));
+            }
+
+            this.data[this.size++] = x.str();
+        }
+
+        @Override
+        protected void put(int index, PyObject x) {
+            this.data[index] = x.str();
+        }
+
+        @Override
+        protected void truncate(int size) {
+            Arrays.fill(this.data, size, this.size, null);
+            this.size = size;
+        }
+
+        @Override
+        public PyListStorage copy() {
+            StrStorage result = new StrStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size);
+            result.size = this.size;
+
+            return result;
+        }
+
+        @Override
+        protected PyListStorage copyRange(int start, int step, int count) {
+            StrStorage result = new StrStorage(count);
+
+            if (step == 1) {
+                System.arraycopy(this.data, start, result.data, 0, count);
+            } else {
+                for (int k = 0; k < count; k++) {
+                    result.data[k] = this.data[start + k * step];
+                }
+            }
+            result.size = count;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage concat(PyListStorage other) {
+            if (!(other instanceof StrStorage)) {
+                return super.concat(other);
+            }
+
+            StrStorage result = new StrStorage(0);
+            result.data = Arrays.copyOf(this.data, this.size + other.size);
+            System.arraycopy(((StrStorage) other).data, 0, result.data, this.size, other.size);
+            result.size = this.size + other.size;
+
+            return result;
+        }
+
+        @Override
+        public PyListStorage repeat(int times) {
+            StrStorage result = new StrStorage(this.size * times);
+
+            for (int k = 0; k < times; k++) {
+                System.arraycopy(this.data, 0, result.data, k * this.size, this.size);
+            }
+            result.size = this.size * times;
+
+            return result;
+        }
+
+        @Override
+        public Boolean sameElements(PyListStorage other) {
+            if (!(other instanceof StrStorage)) {
+                return null;
+            }
+
+            String[] otherData = ((StrStorage) other).data;
+
+            for (int k = 0; k < this.size; k++) {
+                if (!this.data[k].equals(otherData[k])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int indexOf(PyObject x) {
+            if (!(x instanceof PyStr)) {
+                return super.indexOf(x);
+            }
+
+            String val = x.str();
+
+            for (int k = 0; k < this.size; k++) {
+                if (this.data[k].equals(val)) {
+                    return k;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public PyListStorage sort(boolean reverse) {
+            if (reverse) {
+                Arrays.sort(this.data, 0, this.size, Collections.<String>reverseOrder());
+            } else {
+                Arrays.sort(this.data, 0, this.size);
+            }
+
+            return this;
+        }
+    }
+
+    static final class ObjectStorage extends PyListStorage {
+
+        private ArrayList<PyObject> data;
+
+        ObjectStorage(ArrayList<PyObject> data) {
+            this.data = data;
+            this.size = data.size();
+        }
+
+        public ArrayList<PyObject> list() {
+            return this.data;
+        }
+
+        @Override
+        public int size() {
+            // The ArrayList may be handed out by PyList.list() and changed
+            // directly, so its size is the one that counts.
+            return this.data.size();
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return this.data.get(index);
+        }
+
+        @Override
+        protected boolean accepts(PyObject x) {
+            return true;
+        }
+
+        @Override
+        protected void append(PyObject x) {
+            this.data.add(x);
+            this.size = this.data.size();
+        }
+
+        @Override
+        protected void put(int index, PyObject x) {
+            this.data.set(index, x);
+        }
+
+        @Override
+        protected void truncate(int size) {
+            this.data.subList(size, this.data.size()).clear();
+            this.size = size;
+        }
+
+        @Override
+        public PyListStorage copy() {
+            return new ObjectStorage(new ArrayList<PyObject>(this.data));
+        }
+
+        @Override
+        public PyListStorage add(PyObject x) {
+            // An empty list that has not been given a strategy yet takes the
+            // one for its first element.
+            if (this.data.isEmpty()) {
+                PyListStorage storage = forElement(x, 8);
+                storage.append(x);
+                return storage;
+            }
+
+            append(x);
+            return this;
+        }
+
+        @Override
+        protected PyListStorage copyRange(int start, int step, int count) {
+            ArrayList<PyObject> result = new ArrayList<PyObject>(Math.max(count, 8));
+
+            for (int k = 0; k < count; k++) {
+                result.add(this.data.get(start + k * step));
+            }
+
+            return new ObjectStorage(result);
+        }
+
+        @Override
+        public PyListStorage concat(PyListStorage other) {
+            ArrayList<PyObject> result = new ArrayList<PyObject>(this.data.size() + other.size());
+            result.addAll(this.data);
+
+            for (int k = 0; k < other.size(); k++) {
+                result.add(other.get(k));
+            }
+
+            return new ObjectStorage(result);
+        }
+
+        @Override
+        public PyListStorage repeat(int times) {
+            ArrayList<PyObject> result = new ArrayList<PyObject>(this.data.size() * times);
+
+            for (int k = 0; k < times; k++) {
+                result.addAll(this.data);
+            }
+
+            return new ObjectStorage(result);
+        }
+
+        @Override
+        public Boolean sameElements(PyListStorage other) {
+            return null;
+        }
+
+        @Override
+        public ObjectStorage generalize() {
+            return this;
+        }
+    }
+
+    static final class SliceStorage extends PyListStorage {
+
+        private final PyListStorage base;
+        private final int offset;
+        private final int step;
+
+        SliceStorage(PyListStorage base, int offset, int step, int count) {
+            this.base = base;
+            this.offset = offset;
+            this.step = step;
+            this.size = count;
+        }
+
+        private PyListStorage materialize() {
+            return this.base.copyRange(this.offset, this.step, this.size);
+        }
+
+        @Override
+        public PyObject get(int index) {
+            return this.base.get(this.offset + index * this.step);
+        }
+
+        @Override
+        protected boolean accepts(PyObject x) {
+            return false;
+        }
+
+        @Override
+        protected void append(PyObject x) {
+            throw new UnsupportedOperationException("slice storage is read-only");
+        }
+
+        @Override
+        protected void put(int index, PyObject x) {
+            throw new UnsupportedOperationException("slice storage is read-only");
+        }
+
+        @Override
+        protected void truncate(int size) {
+            throw new UnsupportedOperationException("slice storage is read-only");
+        }
+
+        @Override
+        public PyListStorage copy() {
+            return materialize();
+        }
+
+        @Override
+        public PyListStorage set(int index, PyObject x) {
+            return materialize().set(index, x);
+        }
+
+        @Override
+        public PyListStorage add(PyObject x) {
+            return materialize().add(x);
+        }
+
+        @Override
+        public PyListStorage removeLast() {
+            return materialize().removeLast();
+        }
+
+        @Override
+        public PyListStorage slice(int start, int step, int count) {
+            // A slice of a slice is a view of the same base storage.
+            if (count == 0) {
+                return new ObjectStorage(new ArrayList<PyObject>());
+            }
+
+            return new SliceStorage(this.base, this.offset + start * this.step, step * this.step, count);
+        }
+
+        @Override
+        protected PyListStorage copyRange(int start, int step, int count) {
+            return this.base.copyRange(this.offset + start * this.step, step * this.step, count);
+        }
+
+        @Override
+        public PyListStorage flat() {
+            return materialize();
+        }
+
+        @Override
+        public PyListStorage concat(PyListStorage other) {
+            return materialize().concat(other);
+        }
+
+        @Override
+        public PyListStorage repeat(int times) {
+            return materialize().repeat(times);
+        }
+
+        @Override
+        public PyListStorage sort(boolean reverse) {
+            return materialize().sort(reverse);
+        }
+
+        @Override
+        public Boolean sameElements(PyListStorage other) {
+            return null;
+        }
+
+        @Override
+        public void appendRepr(StringBuilder s, int index) {
+            this.base.appendRepr(s, this.offset + index * this.step);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * PyMappedReader.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Reads the text of a file opened in mode 'rm', which maps the file into
+ * memory instead of reading it into buffers. Newlines are found by looking
+ * at the mapped bytes themselves, and only the bytes of the line asked for
+ * are decoded, so reading a file of any size takes no more of the heap than
+ * its longest line, and the operating system reads ahead as fast as the
+ * disk allows.
+ *
+ * A file is mapped a window at a time, since a mapping can be at most 2GB.
+ * When a line runs past the end of the window the next window is mapped
+ * from the start of that line.
+ *
+ * Lines are found by their '\n' and '\r' bytes, which is right for UTF-8 and
+ * for any other charset that encodes ASCII as itself. Newlines are read as
+ * '\n' just as a PyLineReader reads them, so 'rm' and 'r' give the same
+ * strings for the same file.
+ */
+package jcoco;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+
+final class PyMappedReader implements PyTextReader {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final CharsetDecoder decoder;
+    private final long size;
+    private final int windowSize;
+    // The file offset of the start of the window. The window's position is
+    // where reading goes on from.
+    private long base = 0;
+    private MappedByteBuffer window;
+    // The bytes of a line are copied here to be decoded.
+    private byte[] line = new byte[256];
+    // True when the last byte read was a '\r', so a '\n' right after it is
+    // part of the same newline.
+    private boolean skipLF = false;
+
+    PyMappedReader(FileChannel channel, Charset charset) {
+        this(channel, charset, Integer.MAX_VALUE);
+    }
+
+    PyMappedReader(FileChannel channel, Charset charset, int windowSize) {
+        this.channel = channel;
+        this.charset = charset;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.windowSize = windowSize;
+
+        try {
+            this.size = channel.size();
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+
+        map();
+    }
+
+    // Maps the window that starts where reading goes on from.
+    private void map() {
+        if (this.window != null) {
+            this.base += this.window.position();
+        }
+
+        try {
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.base,
+                    Math.min(this.size - this.base, this.windowSize));
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+    }
+
+    private boolean lastWindow() {
+        return this.base + this.window.limit() == this.size;
+    }
+
+    // The bytes from start to end of the window decoded, leaving the window
+    // positioned at end.
+    private String decode(int start, int end) {
+        int length = end - start;
+
+        if (length > this.line.length) {
+            this.line = new byte[Math.max(length, 2 * this.line.length)];
+        }
+
+        this.window.position(start);
+        this.window.get(this.line, 0, length);
+
+        return new String(this.line, 0, length, this.charset);
+    }
+
+    // Reads past the '\n' of a "\r\n" whose '\r' ended the last read.
+    private void skipLineFeed() {
+        if (this.skipLF) {
+            this.skipLF = false;
+
+            if (!exhausted() && this.window.get(this.window.position()) == '\n') {
+                this.window.position(this.window.position() + 1);
+            }
+        }
+    }
+
+    // True if no bytes are left, mapping the next window if the bytes of
+    // this one have all been read.
+    private boolean exhausted() {
+        if (!this.window.hasRemaining() && !lastWindow()) {
+            map();
+        }
+
+        return !this.window.hasRemaining();
+    }
+
+    @Override
+    public boolean atEnd() {
+        skipLineFeed();
+
+        return exhausted();
+    }
+
+    @Override
+    public String readLine() {
+        skipLineFeed();
+
+        while (true) {
+            int start = this.window.position();
+            int limit = this.window.limit();
+
+            for (int k = start; k < limit; k++) {
+                byte b = this.window.get(k);
+
+                if (b == '\n') {
+                    return decode(start, k + 1);
+                }
+
+                if (b == '\r') {
+                    String text = decode(start, k);
+
+                    this.window.position(k + 1);
+                    this.skipLF = true;
+
+                    return text + '\n';
+                }
+            }
+
+            if (lastWindow()) {
+                return decode(start, limit);
+            }
+
+            if (start == 0) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "OSError: line too long to read from a mapped file");
+            }
+
+            map();
+        }
+    }
+
+    /**
+     * Up to count chars, fewer if the file ends first. A negative count
+     * reads the rest of the file.
+     */
+    @Override
+    public String read(int count) {
+        StringBuilder result = new StringBuilder();
+        CharBuffer chunk = CharBuffer.allocate(count < 0 ? CHUNK_SIZE : Math.min(count, CHUNK_SIZE));
+
+        this.decoder.reset();
+
+        while (count < 0 || result.length() < count) {
+            chunk.clear();
+
+            if (count >= 0) {
+                chunk.limit(Math.min(chunk.capacity(), count - result.length()));
+            }
+
+            // Bytes of a char cut off by the end of a window are left for
+            // the next window.
+            boolean last = lastWindow();
+            CoderResult coderResult = this.decoder.decode(this.window, chunk, last);
+
+            chunk.flip();
+
+            // A char that needs two chars of the chunk cannot end a read one
+            // char short of count.
+            if (coderResult.isOverflow() && !chunk.hasRemaining()) {
+                break;
+            }
+
+            this.skipLF = PyLineReader.translate(result, chunk.array(), 0, chunk.limit(), this.skipLF);
+
+            if (coderResult.isUnderflow()) {
+                if (last) {
+                    break;
+                }
+
+                map();
+            }
+        }
+
+        return result.toString();
+    }
+
+    @Override
+    public ArrayList<PyObject> readLines() {
+        ArrayList<PyObject> lines = new ArrayList<PyObject>();
+
+        while (!atEnd()) {
+            lines.add(new PyStr(readLine()));
+        }
+
+        return lines;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "OSError: " + ex.getMessage());
+        }
+    }
+}
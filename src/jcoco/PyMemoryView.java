@@ -0,0 +1,280 @@
+/**
+ * PyMemoryView.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A memoryview is a window on the byte array of a bytes or bytearray object:
+ * size bytes, the first at start and the rest step apart. Indexing and
+ * slicing a memoryview read and write the array itself, so slicing one
+ * copies nothing and a view of a bytearray sees (and makes) its changes.
+ *
+ * While a memoryview of a bytearray is in use the bytearray cannot change
+ * its size, since that could move its bytes to a new array. Calling release
+ * lets it change size again and makes the view unusable.
+ */
+package jcoco;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyMemoryView extends PyPrimitiveTypeAdapter {
+
+    private final PyBytes obj;
+    private final int start;
+    private final int size;
+    private final int step;
+    private boolean released;
+
+    private PyMemoryView(PyBytes obj, int start, int size, int step) {
+        super("memoryview", PyTypeId.PyMemoryViewTypeId, true);
+        this.obj = obj;
+        this.start = start;
+        this.size = size;
+        this.step = step;
+
+        if (obj.isMutable()) {
+            obj.exports++;
+        }
+    }
+
+    /**
+     * A view of all of a bytes-like object.
+     */
+    public static PyMemoryView of(PyObject x) {
+        if (x instanceof PyMemoryView) {
+            PyMemoryView view = (PyMemoryView) x;
+            view.check();
+
+            return new PyMemoryView(view.obj, view.start, view.size, view.step);
+        }
+
+        if (x instanceof PyBytes) {
+            PyBytes bytes = (PyBytes) x;
+
+            return new PyMemoryView(bytes, bytes.offset(), bytes.len(), 1);
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                "TypeError: memoryview: a bytes-like object is required, not '" + x.getType().str() + "'");
+    }
+
+    private void check() {
+        if (this.released) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: operation forbidden on released memoryview object");
+        }
+    }
+
+    public boolean readonly() {
+        return !this.obj.isMutable();
+    }
+
+    public boolean contiguous() {
+        return this.step == 1;
+    }
+
+    public int len() {
+        check();
+
+        return this.size;
+    }
+
+    public int get(int index) {
+        return this.obj.array()[this.start + index * this.step] & 0xff;
+    }
+
+    public void set(int index, PyObject x) {
+        if (readonly()) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: cannot modify read-only memory");
+        }
+
+        this.obj.array()[this.start + index * this.step] = PyBytes.toByte(x);
+    }
+
+    /**
+     * A buffer on the bytes of the view. It shares the array unless the view
+     * has a step, and writes into it if the view is writable.
+     */
+    public ByteBuffer buffer() {
+        check();
+
+        if (this.step == 1) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.obj.array(), this.start, this.size).slice();
+
+            return readonly() ? buffer.asReadOnlyBuffer() : buffer;
+        }
+
+        byte[] copy = new byte[this.size];
+
+        for (int k = 0; k < this.size; k++) {
+            copy[k] = (byte) get(k);
+        }
+
+        return ByteBuffer.wrap(copy).asReadOnlyBuffer();
+    }
+
+    public PyMemoryView slice(PySlice slice) {
+        check();
+
+        int[] indices = slice.indices(this.size);
+
+        return new PyMemoryView(this.obj, this.start + indices[0] * this.step, indices[3], indices[2] * this.step);
+    }
+
+    public void release() {
+        if (!this.released) {
+            this.released = true;
+
+            if (this.obj.isMutable()) {
+                this.obj.exports--;
+            }
+        }
+    }
+
+    @Override
+    public String str() {
+        return "<" + (this.released ? "released " : "") + "memory at 0x"
+                + Integer.toHexString(System.identityHashCode(this)) + ">";
+    }
+
+    private static int index(PyMemoryView self, PyObject indexObj) {
+        int index = ((PyInt) indexObj).getVal();
+
+        if (index < 0) {
+            index += self.len();
+        }
+
+        if (index < 0 || index >= self.len()) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "IndexError: index out of bounds on dimension 1");
+        }
+
+        return index;
+    }
+
+    private static void checkArgs(ArrayList<PyObject> args, int count) {
+        if (args.size() != count) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected " + count + " arguments, got " + args.size());
+        }
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+
+                return new PyInt(self.len());
+            }
+        });
+
+        funs.put("__getitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
+                return new PyInt(self.get(index(self, args.get(0))));
+            }
+        });
+
+        funs.put("__setitem__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 3);
+
+                // The arguments are the value, the index, and self.
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+
+                self.set(index(self, args.get(1)), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+
+                return new PyLazyIterator("memory_iterator", PyTypeId.PyBytesIteratorTypeId,
+                        PyIterables.iterator(self));
+            }
+        });
+
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+                PyObject other = args.get(0);
+
+                return new PyBool((other instanceof PyBytes || other instanceof PyMemoryView)
+                        && self.buffer().equals(PyBytes.readable(other)));
+            }
+        });
+
+        funs.put("tobytes", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+
+                return PyBytes.of(self, false);
+            }
+        });
+
+        funs.put("tolist", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+                ArrayList<PyObject> items = new ArrayList<PyObject>(self.len());
+
+                for (int k = 0; k < self.size; k++) {
+                    items.add(new PyInt(self.get(k)));
+                }
+
+                return new PyList(items);
+            }
+        });
+
+        funs.put("release", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1);
+
+                PyMemoryView self = (PyMemoryView) args.get(args.size() - 1);
+                self.release();
+
+                return new PyNone();
+            }
+        });
+
+        return funs;
+    }
+}
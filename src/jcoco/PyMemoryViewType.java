@@ -0,0 +1,34 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the memoryview type. memoryview(x) is a view of the
+ * bytes of the bytes, bytearray, or memoryview object x that shares them
+ * rather than copying them.
+ */
+
+public class PyMemoryViewType extends PyType {
+
+    public PyMemoryViewType() {
+        super("memoryview", PyType.PyTypeId.PyMemoryViewTypeId);
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+        if (args.size() != 1) {
+            throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: memoryview expected 1 argument, got " + args.size());
+        }
+
+        return PyMemoryView.of(args.get(0));
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 1, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: The array module. It provides the array type, for compact
+ * arrays of numbers that all have the same C type, and the typecodes string
+ * listing the types that are supported.
+ */
+package jcoco;
+
+public class PyModuleArray extends PyObjectAdapter {
+
+    public PyModuleArray() {
+        super("<module 'array' (built-in)>", PyType.PyTypeId.PyModuleType);
+        this.set("array", JCoCo.PyTypes.get(PyType.PyTypeId.PyArrayTypeId));
+        this.set("typecodes", new PyStr("bild"));
+    }
+
+}
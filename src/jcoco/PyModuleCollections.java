@@ -0,0 +1,22 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 1, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: The collections module. It provides the deque type, a
+ * double-ended queue for breadth first searches and sliding windows.
+ */
+package jcoco;
+
+public class PyModuleCollections extends PyObjectAdapter {
+
+    public PyModuleCollections() {
+        super("<module 'collections' (built-in)>", PyType.PyTypeId.PyModuleType);
+        this.set("deque", JCoCo.PyTypes.get(PyType.PyTypeId.PyDequeTypeId));
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 1, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: The heapq module, for using a list as a priority queue. The
+ * functions are heappush(heap, x), heappop(heap), heapify(list),
+ * nsmallest(n, iterable[, key]), and nlargest(n, iterable[, key]). The work
+ * is done by PyHeap.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PyModuleHeapq extends PyObjectAdapter {
+
+    public PyModuleHeapq() {
+        super("<module 'heapq' (built-in)>", PyTypeId.PyModuleType);
+
+        this.set("heappush", new Function("heappush", 2, 2) {
+            @Override
+            protected PyObject call(ArrayList<PyObject> args) {
+                PyHeap.push(heap(args.get(1)), args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        this.set("heappop", new Function("heappop", 1, 1) {
+            @Override
+            protected PyObject call(ArrayList<PyObject> args) {
+                PyList heap = heap(args.get(0));
+
+                if (heap.len() == 0) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "IndexError: index out of range");
+                }
+
+                return PyHeap.pop(heap);
+            }
+        });
+
+        this.set("heapify", new Function("heapify", 1, 1) {
+            @Override
+            protected PyObject call(ArrayList<PyObject> args) {
+                PyHeap.heapify(heap(args.get(0)));
+
+                return new PyNone();
+            }
+        });
+
+        this.set("nsmallest", new Function("nsmallest", 2, 3) {
+            @Override
+            protected PyObject call(ArrayList<PyObject> args) {
+                return select(args, false);
+            }
+        });
+
+        this.set("nlargest", new Function("nlargest", 2, 3) {
+            @Override
+            protected PyObject call(ArrayList<PyObject> args) {
+                return select(args, true);
+            }
+        });
+    }
+
+    private static PyList heap(PyObject x) {
+        if (!(x instanceof PyList)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: heap argument must be a list");
+        }
+
+        return (PyList) x;
+    }
+
+    private static PyList select(ArrayList<PyObject> args, boolean largest) {
+        // The arguments are in reverse order: [key,] iterable, n.
+        PyObject n = args.get(args.size() - 1);
+        PyObject key = args.size() == 3 && !(args.get(0) instanceof PyNone) ? args.get(0) : null;
+
+        if (!(n instanceof PyInt)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: an integer is required");
+        }
+
+        return PyHeap.select(((PyInt) n).getVal(), args.get(args.size() - 2), key, largest);
+    }
+
+    // A function of the module, which checks its argument count before it is
+    // called.
+    private abstract static class Function extends PyCallableAdapter {
+
+        private final String name;
+        private final int min;
+        private final int max;
+
+        Function(String name, int min, int max) {
+            this.name = name;
+            this.min = min;
+            this.max = max;
+        }
+
+        protected abstract PyObject call(ArrayList<PyObject> args);
+
+        @Override
+        public PyType getType() {
+            return JCoCo.PyTypes.get(PyTypeId.PyBuiltInType);
+        }
+
+        @Override
+        public String str() {
+            return "<built-in function " + this.name + ">";
+        }
+
+        @Override
+        public PyObject __call__(ArrayList<PyObject> args) {
+            if (args.size() < this.min || args.size() > this.max) {
+                String expected = this.min == this.max ? (this.min == 1 ? "1 argument" : this.min + " arguments")
+                        : this.min + " or " + this.max + " arguments";
+
+                throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                        "TypeError: " + this.name + " expected " + expected + ", got " + args.size());
+            }
+
+            return call(args);
+        }
+    }
+}
@@ -11,9 +11,6 @@
  */
 package jcoco;
 
-import java.io.PrintWriter;
-import java.util.Scanner;
-
 /**
  *
  * @author leekentd
@@ -22,8 +19,8 @@ public class PyModuleSys extends PyObjectAdapter {
     
     public PyModuleSys() {
         super("<module 'sys' (built-in)>", PyType.PyTypeId.PyModuleType);
-        this.set("stdin", new PyFile(new Scanner(System.in)));
-        this.set("stdout", new PyFile(new PrintWriter(System.out)));           
+        this.set("stdin", new PyFile(JCoCo.stdin));
+        this.set("stdout", new PyFile(JCoCo.stdout));
     }
     
 }
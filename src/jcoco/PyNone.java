@@ -25,8 +25,7 @@ import jcoco.PyType.PyTypeId;
 public class PyNone extends PyPrimitiveTypeAdapter {
 
     public PyNone() {
-        super("None", PyTypeId.PyNoneType);
-        initMethods(funs());
+        super("None", PyTypeId.PyNoneType, true);
     }
 
     @Override
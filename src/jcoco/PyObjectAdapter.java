@@ -18,12 +18,17 @@ import jcoco.PyException.ExceptionType;
 public class PyObjectAdapter implements PyObject {
 
     // These are the attributes of the object, whatever type of object this is.
-    protected HashMap<String, PyObject> dict = new HashMap<String, PyObject>();
+    protected HashMap<String, PyObject> dict;
 
     // The attrs are the attributes to be set in each instance of a class. See
     // PyClass' initInstance for where PyMethod objects are installed in each
     // instance. KDL
-    protected HashMap<String, PyObject> attrs = new HashMap<String, PyObject>();
+    protected HashMap<String, PyObject> attrs;
+
+    // Objects created with sharedMethods set start out with this empty map as
+    // their dict and attrs, so they allocate no maps of their own. An object
+    // gets its own dict the first time something is stored in it.
+    private static final HashMap<String, PyObject> NO_ENTRIES = new HashMap<String, PyObject>();
     protected String name;
     protected PyType.PyTypeId type;
 
@@ -33,11 +38,34 @@ public class PyObjectAdapter implements PyObject {
         this.type = type;
     }
 
+    // An object created with sharedMethods set gets nothing in its dict. Its
+    // methods are found by sharedMethod instead, so creating one costs no more
+    // than its fields.
+    protected PyObjectAdapter(String name, PyType.PyTypeId type, boolean sharedMethods) {
+        if (sharedMethods) {
+            this.dict = NO_ENTRIES;
+            this.attrs = NO_ENTRIES;
+        } else {
+            this.dict = new HashMap<String, PyObject>();
+            this.attrs = new HashMap<String, PyObject>();
+            addDefaultMethods();
+        }
+
+        this.name = name;
+        this.type = type;
+    }
+
     public PyObjectAdapter() {
+        this.dict = new HashMap<String, PyObject>();
+        this.attrs = new HashMap<String, PyObject>();
 
         name = "PyObject()";
         type = PyType.PyTypeId.PyClassType;
-        
+
+        addDefaultMethods();
+    }
+
+    private void addDefaultMethods() {
         PyObjectAdapter self = this;
         this.dict.put("__str__", new PyBaseCallable() {
             @Override
@@ -106,6 +134,17 @@ public class PyObjectAdapter implements PyObject {
             return mbr.__call__(args);
         }
 
+        PyCallable fun = sharedMethod(name);
+
+        if (fun != null) {
+            args.add(this);
+            try {
+                return fun.__call__(args);
+            } finally {
+                args.remove(args.size() - 1);
+            }
+        }
+
         throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
     }
 
@@ -127,7 +166,7 @@ public class PyObjectAdapter implements PyObject {
 
     @Override
     public void set(String key, PyObject value) {
-        this.dict.put(key, value);
+        ownDict().put(key, value);
     }
 
     @Override
@@ -140,6 +179,12 @@ public class PyObjectAdapter implements PyObject {
             return this.dict.get(key);
         }
 
+        PyCallable fun = sharedMethod(key);
+
+        if (fun != null) {
+            return new PyMethod(key, this, fun);
+        }
+
         throw new PyException(ExceptionType.PYATTRERROR,
                 "AttributeError: '" + this.getType().str() + "' object has no attribute '" + key + "'");
 
@@ -169,10 +214,30 @@ public class PyObjectAdapter implements PyObject {
         return bool.getVal();
     }
 
+    /**
+     * Returns the function that implements the named method when it is shared
+     * by all objects of the same type rather than stored in this object's
+     * dict, or null if there is none. The function expects self as its last
+     * argument, just like the functions wrapped by PyMethod.
+     */
+    protected PyCallable sharedMethod(String name) {
+        return null;
+    }
+
     public void initMethods(HashMap<String, PyCallable> funs) {
+        HashMap<String, PyObject> dict = ownDict();
+
         for (String key : funs.keySet()) {
-            this.dict.put(key, new PyMethod(key, this, funs.get(key)));
+            dict.put(key, new PyMethod(key, this, funs.get(key)));
+        }
+    }
+
+    private HashMap<String, PyObject> ownDict() {
+        if (this.dict == NO_ENTRIES) {
+            this.dict = new HashMap<String, PyObject>();
         }
+
+        return this.dict;
     }
 
     public static ArrayList<PyObject> newargs() {
@@ -339,7 +339,7 @@ public class PyParser {
 
     private PyObject Value(ArrayList<PyObject> nestedClassFunctionList) {
         int iVal;
-        float fVal;
+        double dVal;
         String sVal;
         PyToken codeId;
 
@@ -357,8 +357,8 @@ public class PyParser {
                 break;
             case PYFLOATTOKEN:
                 try {
-                    fVal = Float.parseFloat(tok.getLex());
-                    return new PyFloat(fVal);
+                    dVal = Double.parseDouble(tok.getLex());
+                    return new PyFloat(dVal);
                 } catch (NumberFormatException e) {
                     System.err.println(e);
                     System.exit(0);
@@ -366,7 +366,7 @@ public class PyParser {
                 break;
             case PYSTRINGTOKEN:
                 sVal = tok.getLex();
-                return new PyStr(sVal);
+                return PyStr.intern(sVal);
             case PYIDENTIFIERTOKEN:
                 if (tok.getLex().equals("None")) {
                     return new PyNone();
@@ -496,7 +496,7 @@ public class PyParser {
             badToken(tok, "Expected an identifier.");
         }
 
-        lst.add(tok.getLex());
+        lst.add(tok.getLex().intern());
 
         return IdRest(lst);
     }
@@ -26,11 +26,47 @@ import java.util.HashMap;
  */
 public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
 
+    private static final HashMap<String, PyCallable> PRIMITIVE_FUNS = primitiveFuns();
+
+    private final boolean sharedMethods;
+
     public PyPrimitiveTypeAdapter(String name, PyType.PyTypeId type) {
         super(name, type);
+        this.sharedMethods = false;
         initMethods(primitiveFuns());
     }
 
+    /**
+     * With sharedMethods set, the object does not get its own copy of its
+     * methods. They are looked up when called in the instance functions of
+     * its type (given to setInstanceFuns in JCoCo.initTypes) and then in the
+     * primitive functions below. Small objects that are created often, like
+     * iterators, should be created this way.
+     */
+    protected PyPrimitiveTypeAdapter(String name, PyType.PyTypeId type, boolean sharedMethods) {
+        super(name, type, sharedMethods);
+        this.sharedMethods = sharedMethods;
+
+        if (!sharedMethods) {
+            initMethods(primitiveFuns());
+        }
+    }
+
+    @Override
+    protected PyCallable sharedMethod(String name) {
+        if (!this.sharedMethods) {
+            return null;
+        }
+
+        PyCallable fun = getType().instanceFun(name);
+
+        if (fun == null) {
+            fun = PRIMITIVE_FUNS.get(name);
+        }
+
+        return fun;
+    }
+
     public static HashMap<String, PyCallable> primitiveFuns() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
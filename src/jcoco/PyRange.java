@@ -8,44 +8,118 @@
  * KIND.
  *
  * Description:
+ * A range never holds its elements. Its length, membership, indexing,
+ * slicing (which gives another range), reversal, and equality are all
+ * computed from start, stop, and step, so none of them creates an element.
+ * The bounds are kept as longs so positions computed from them cannot
+ * overflow.
  */
 package jcoco;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
 
 public class PyRange extends PyPrimitiveTypeAdapter {
 
-    private int start, stop, increment;
+    private final long start, stop, increment;
+    private final long length;
 
     public PyRange(int start, int stop, int increment) {
-        super("range", PyType.PyTypeId.PyRangeTypeId);
-        initMethods(funs());
+        this((long) start, (long) stop, (long) increment);
+    }
+
+    private PyRange(long start, long stop, long increment) {
+        super("range", PyType.PyTypeId.PyRangeTypeId, true);
 
         this.start = start;
         this.stop = stop;
         this.increment = increment;
 
+        if (increment > 0) {
+            this.length = start < stop ? (stop - start - 1) / increment + 1 : 0;
+        } else {
+            this.length = stop < start ? (start - stop - 1) / -increment + 1 : 0;
+        }
     }
 
     @Override
     public String str() {
-        return "range(" + start + "," + stop + "," + increment + ")";
+        if (increment == 1) {
+            return "range(" + start + ", " + stop + ")";
+        }
+
+        return "range(" + start + ", " + stop + ", " + increment + ")";
+    }
+
+    public int len() {
+        if (length > Integer.MAX_VALUE) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "OverflowError: range has too many items");
+        }
+
+        return (int) length;
     }
 
-    public PyObject indexOf(int index) throws PyException {
-        int val = start + index * increment;
+    public boolean isEmpty() {
+        return length == 0;
+    }
 
-        if (increment > 0 && val >= stop) {
+    public PyObject indexOf(long index) throws PyException {
+        if (index < 0 || index >= length) {
             throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
         }
 
-        if (increment < 0 && val <= stop) {
-            throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+        return new PyInt((int) (start + increment * index));
+    }
+
+    public boolean contains(PyObject x) {
+        long val;
+
+        if (x instanceof PyInt) {
+            val = ((PyInt) x).getVal();
+        } else if (x instanceof PyBool) {
+            val = ((PyBool) x).getIntVal();
+        } else if (x instanceof PyFloat && ((PyFloat) x).getVal() == (long) ((PyFloat) x).getVal()) {
+            val = (long) ((PyFloat) x).getVal();
+        } else {
+            return false;
+        }
+
+        if (increment > 0 ? (val < start || val >= stop) : (val > start || val <= stop)) {
+            return false;
+        }
+
+        return (val - start) % increment == 0;
+    }
+
+    public PyRange slice(PySlice slice) {
+        int[] indices = slice.indices(len());
+
+        return new PyRange(start + indices[0] * increment, start + indices[1] * increment,
+                increment * indices[2]);
+    }
+
+    public PyRange reversed() {
+        long last = start + (length - 1) * increment;
+
+        return new PyRange(last, start - increment, -increment);
+    }
+
+    public boolean sameElements(PyRange other) {
+        if (length != other.length) {
+            return false;
+        }
+
+        if (length == 0) {
+            return true;
         }
 
-        return new PyInt(start + increment * index);
+        if (start != other.start) {
+            return false;
+        }
 
+        return length == 1 || increment == other.increment;
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -62,7 +136,23 @@ public class PyRange extends PyPrimitiveTypeAdapter {
 
                 PyRange self = (PyRange) args.get(args.size() - 1);
 
-                return new PyRangeIterator(self);
+                return new PyRangeIterator(self.start, self.increment, self.length);
+            }
+        });
+
+        funs.put("__reversed__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyRange self = (PyRange) args.get(args.size() - 1);
+                PyRange reversed = self.reversed();
+
+                return new PyRangeIterator(reversed.start, reversed.increment, reversed.length);
             }
         });
 
@@ -77,7 +167,22 @@ public class PyRange extends PyPrimitiveTypeAdapter {
 
                 PyRange self = (PyRange) args.get(args.size() - 1);
 
-                return new PyInt((self.stop - self.start) / self.increment);
+                return new PyInt(self.len());
+            }
+        });
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyRange self = (PyRange) args.get(args.size() - 1);
+
+                return new PyBool(self.contains(args.get(0)));
             }
         });
 
@@ -91,17 +196,96 @@ public class PyRange extends PyPrimitiveTypeAdapter {
                 }
 
                 PyRange self = (PyRange) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
                 PyInt indexObj = (PyInt) args.get(0);
-                int index = indexObj.getVal();
+                // The length may be more than an int can hold.
+                long index = indexObj.getVal();
+
+                if (index < 0) {
+                    index += self.length;
+                }
+
+                if (index < 0 || index >= self.length) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "IndexError: range object index out of range");
+                }
 
                 return self.indexOf(index);
             }
         });
 
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyRange self = (PyRange) args.get(args.size() - 1);
+
+                if (!(args.get(0) instanceof PyRange)) {
+                    return new PyBool(false);
+                }
+
+                return new PyBool(self.sameElements((PyRange) args.get(0)));
+            }
+        });
+
+        funs.put("__ne__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 2) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PyRange self = (PyRange) args.get(args.size() - 1);
+
+                if (!(args.get(0) instanceof PyRange)) {
+                    return new PyBool(true);
+                }
+
+                return new PyBool(!self.sameElements((PyRange) args.get(0)));
+            }
+        });
+
+        funs.put("__hash__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+
+                if (args.size() != 1) {
+                    throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PyRange self = (PyRange) args.get(args.size() - 1);
+
+                // Equal ranges must hash the same, so only what __eq__
+                // looks at goes into the hash.
+                long hash = self.length;
+
+                if (self.length > 0) {
+                    hash = hash * 1000003 + self.start;
+                }
+
+                if (self.length > 1) {
+                    hash = hash * 1000003 + self.increment;
+                }
+
+                return new PyInt(Math.abs((int) (hash ^ (hash >>> 32))));
+            }
+        });
+
         funs.put("__list__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(ArrayList<PyObject> args) {
-                ArrayList<PyObject> largs = new ArrayList<PyObject>();
 
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
@@ -109,13 +293,13 @@ public class PyRange extends PyPrimitiveTypeAdapter {
                 }
 
                 PyRange self = (PyRange) args.get(args.size() - 1);
+                int[] values = new int[self.len()];
 
-                int k;
-                for (k = self.start; k < self.stop; k = k + self.increment) {
-                    largs.add(new PyInt(k));
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = (int) (self.start + k * self.increment);
                 }
 
-                return new PyList(largs);
+                return new PyList(PyListStorage.ofInts(values));
             }
         });
 
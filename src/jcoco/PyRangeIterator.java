@@ -13,18 +13,21 @@ import java.util.HashMap;
  * KIND.
  *
  * Description:
+ * Counts through a range (or a reversed range) one step at a time without
+ * going back to the range for each element.
  */
 public class PyRangeIterator extends PyPrimitiveTypeAdapter {
 
-    private PyRange range;
-    private int index;
+    private long next;
+    private final long increment;
+    private long remaining;
 
-    public PyRangeIterator(PyRange range) {
-        super("range_iterator",PyType.PyTypeId.PyRangeIteratorType);
-        initMethods(funs());
+    public PyRangeIterator(long start, long increment, long length) {
+        super("range_iterator",PyType.PyTypeId.PyRangeIteratorType, true);
 
-        this.range = range;
-        this.index = 0;
+        this.next = start;
+        this.increment = increment;
+        this.remaining = length;
 
     }
 
@@ -57,7 +60,15 @@ public class PyRangeIterator extends PyPrimitiveTypeAdapter {
 
                 PyRangeIterator self = (PyRangeIterator) args.get(args.size() - 1);
 
-                return self.range.indexOf(self.index++);
+                if (self.remaining <= 0) {
+                    throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+                }
+
+                PyInt item = new PyInt((int) self.next);
+                self.next += self.increment;
+                self.remaining--;
+
+                return item;
             }
         });
 
@@ -75,6 +75,10 @@ public class PyRangeType extends PyType {
                 stop = ((PyInt) args.get(1)).getVal();
                 increment = ((PyInt) args.get(0)).getVal();
 
+                if (increment == 0) {
+                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "ValueError: range() arg 3 must not be zero");
+                }
+
                 break;
             default:
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Incorrect number of arguments for built-in range function.");
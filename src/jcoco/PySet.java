@@ -0,0 +1,859 @@
+/**
+ * PySet.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The JCoCo implementation of set and frozenset. A frozenset is a set that
+ * cannot be changed once it is built, and so it can be hashed and used as
+ * a dictionary key or as a member of another set.
+ *
+ * As long as every member of a set is an int, the members are kept unboxed
+ * in a PyIntHashSet. The first time anything else is added the set switches
+ * over to a PyHashTable, the same table used by dictionaries, and stays that
+ * way. Either way membership is tested in constant time, and union,
+ * intersection, and difference work directly on the underlying tables.
+ * >>> s = {1, 2, 3}
+ * >>> 2 in s
+ * True
+ * >>> s | frozenset([3, 4])
+ * {1, 2, 3, 4}
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PySet extends PyPrimitiveTypeAdapter {
+
+    // Exactly one of these is non-null.
+    private PyIntHashSet ints;
+    private PyHashTable table;
+
+    private final boolean frozen;
+    private boolean hashed = false;
+    private int hash;
+
+    public PySet(boolean frozen) {
+        this(frozen, 0);
+    }
+
+    public PySet(boolean frozen, int expected) {
+        super(frozen ? "frozenset" : "set", frozen ? PyTypeId.PyFrozenSetTypeId : PyTypeId.PySetTypeId);
+        this.frozen = frozen;
+        initMethods(frozen ? frozenFuns() : funs());
+        this.ints = new PyIntHashSet(expected);
+    }
+
+    /**
+     * Builds a set from any iterable object.
+     */
+    public static PySet of(PyObject iterable, boolean frozen) {
+        if (iterable instanceof PySet) {
+            return ((PySet) iterable).copy(frozen);
+        }
+
+        if (iterable instanceof PyList) {
+            PyList lst = (PyList) iterable;
+            PySet result = new PySet(frozen, lst.len());
+
+            for (int k = 0; k < lst.len(); k++) {
+                result.add(lst.getVal(k));
+            }
+
+            return result;
+        }
+
+        PySet result = new PySet(frozen);
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        PyObject it = iterable.callMethod("__iter__", args);
+
+        while (true) {
+            try {
+                result.add(it.callMethod("__next__", args));
+            } catch (PyException e) {
+                if (e.getExceptionType() == ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                    return result;
+                }
+                throw e;
+            }
+        }
+    }
+
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    public int len() {
+        return this.ints != null ? this.ints.size() : this.table.size();
+    }
+
+    public boolean contains(PyObject x) {
+        if (this.table != null) {
+            return this.table.containsKey(x);
+        }
+
+        if (x instanceof PyInt) {
+            return this.ints.contains(((PyInt) x).getVal());
+        }
+
+        if (x instanceof PyBool) {
+            return this.ints.contains(((PyBool) x).getIntVal());
+        }
+
+        if (x instanceof PyFloat) {
+            double d = ((PyFloat) x).getVal();
+            return d == (int) d && this.ints.contains((int) d);
+        }
+
+        // Nothing else can be equal to an int, but unhashable values are
+        // still an error.
+        PyHashTable.hashOf(x);
+
+        return false;
+    }
+
+    public void add(PyObject x) {
+        if (this.ints != null) {
+            if (x instanceof PyInt) {
+                this.ints.add(((PyInt) x).getVal());
+                return;
+            }
+
+            toTable();
+        }
+
+        this.table.put(x, null);
+    }
+
+    public boolean discard(PyObject x) {
+        if (this.table != null) {
+            return this.table.remove(x);
+        }
+
+        if (!contains(x)) {
+            return false;
+        }
+
+        if (x instanceof PyInt) {
+            return this.ints.remove(((PyInt) x).getVal());
+        }
+
+        if (x instanceof PyBool) {
+            return this.ints.remove(((PyBool) x).getIntVal());
+        }
+
+        return this.ints.remove((int) ((PyFloat) x).getVal());
+    }
+
+    public void clear() {
+        this.ints = new PyIntHashSet(0);
+        this.table = null;
+    }
+
+    private void toTable() {
+        PyHashTable newTable = new PyHashTable(false, this.ints.size() + 1);
+
+        for (int k = 0; k < this.ints.entryLimit(); k++) {
+            if (!this.ints.isRemoved(k)) {
+                int val = this.ints.memberAt(k);
+                newTable.put(new PyInt(val), Math.abs(val), null);
+            }
+        }
+
+        this.table = newTable;
+        this.ints = null;
+    }
+
+    // Members are visited by running ix from 0 to entryLimit() - 1.
+    // elementAt returns null for members that have been removed.
+    public int entryLimit() {
+        return this.ints != null ? this.ints.entryLimit() : this.table.entryLimit();
+    }
+
+    // The position of the first member that was not removed, or -1 if the
+    // set is empty.
+    public int firstEntry() {
+        return this.ints != null ? this.ints.firstEntry() : this.table.firstEntry();
+    }
+
+    public PyObject elementAt(int ix) {
+        if (this.ints != null) {
+            return this.ints.isRemoved(ix) ? null : new PyInt(this.ints.memberAt(ix));
+        }
+
+        return this.table.keyAt(ix);
+    }
+
+    private boolean bothInts(PySet other) {
+        return this.ints != null && other.ints != null;
+    }
+
+    public void addAll(PySet other) {
+        if (bothInts(other)) {
+            for (int k = 0; k < other.ints.entryLimit(); k++) {
+                if (!other.ints.isRemoved(k)) {
+                    this.ints.add(other.ints.memberAt(k));
+                }
+            }
+            return;
+        }
+
+        if (this.table != null && other.table != null) {
+            // The hashes are already known so they are not computed again.
+            for (int k = 0; k < other.table.entryLimit(); k++) {
+                PyObject x = other.table.keyAt(k);
+                if (x != null) {
+                    this.table.put(x, other.table.hashAt(k), null);
+                }
+            }
+            return;
+        }
+
+        for (int k = 0; k < other.entryLimit(); k++) {
+            PyObject x = other.elementAt(k);
+            if (x != null) {
+                add(x);
+            }
+        }
+    }
+
+    public PySet copy(boolean frozen) {
+        PySet result = new PySet(frozen, len());
+        result.addAll(this);
+
+        return result;
+    }
+
+    public PySet union(PySet other) {
+        PySet result = new PySet(this.frozen, len() + other.len());
+        result.addAll(this);
+        result.addAll(other);
+
+        return result;
+    }
+
+    public PySet intersection(PySet other) {
+        // Walk the smaller of the two sets and probe the larger one.
+        PySet small = len() <= other.len() ? this : other;
+        PySet large = small == this ? other : this;
+        PySet result = new PySet(this.frozen, small.len());
+
+        if (bothInts(other)) {
+            for (int k = 0; k < small.ints.entryLimit(); k++) {
+                if (!small.ints.isRemoved(k) && large.ints.contains(small.ints.memberAt(k))) {
+                    result.ints.add(small.ints.memberAt(k));
+                }
+            }
+            return result;
+        }
+
+        for (int k = 0; k < small.entryLimit(); k++) {
+            PyObject x = small.elementAt(k);
+            if (x != null && large.contains(x)) {
+                result.add(x);
+            }
+        }
+
+        return result;
+    }
+
+    public PySet difference(PySet other) {
+        PySet result = new PySet(this.frozen, len());
+
+        if (bothInts(other)) {
+            for (int k = 0; k < this.ints.entryLimit(); k++) {
+                if (!this.ints.isRemoved(k) && !other.ints.contains(this.ints.memberAt(k))) {
+                    result.ints.add(this.ints.memberAt(k));
+                }
+            }
+            return result;
+        }
+
+        for (int k = 0; k < entryLimit(); k++) {
+            PyObject x = elementAt(k);
+            if (x != null && !other.contains(x)) {
+                result.add(x);
+            }
+        }
+
+        return result;
+    }
+
+    public PySet symmetricDifference(PySet other) {
+        PySet result = difference(other);
+        result.addAll(other.difference(this));
+
+        return result;
+    }
+
+    public boolean isSubset(PySet other) {
+        if (len() > other.len()) {
+            return false;
+        }
+
+        if (bothInts(other)) {
+            for (int k = 0; k < this.ints.entryLimit(); k++) {
+                if (!this.ints.isRemoved(k) && !other.ints.contains(this.ints.memberAt(k))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (int k = 0; k < entryLimit(); k++) {
+            PyObject x = elementAt(k);
+            if (x != null && !other.contains(x)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void replaceWith(PySet other) {
+        this.ints = other.ints;
+        this.table = other.table;
+    }
+
+    private int frozenHash() {
+        // This is the same order independent combination of the member
+        // hashes that CPython uses for frozensets.
+        if (this.hashed) {
+            return this.hash;
+        }
+
+        int h = 0;
+
+        for (int k = 0; k < entryLimit(); k++) {
+            int eh;
+
+            if (this.ints != null) {
+                if (this.ints.isRemoved(k)) {
+                    continue;
+                }
+                eh = Math.abs(this.ints.memberAt(k));
+            } else {
+                if (this.table.keyAt(k) == null) {
+                    continue;
+                }
+                eh = this.table.hashAt(k);
+            }
+
+            h ^= ((eh ^ 89869747) ^ (eh << 16)) * (int) 3644798167L;
+        }
+
+        h ^= (len() + 1) * 1927868237;
+        h ^= (h >>> 11) ^ (h >>> 25);
+        h = h * 69069 + 907133923;
+
+        this.hash = h;
+        this.hashed = true;
+
+        return h;
+    }
+
+    @Override
+    public String str() {
+        if (len() == 0) {
+            return this.name + "()";
+        }
+
+        StringBuilder s = new StringBuilder();
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        boolean first = true;
+
+        if (this.frozen) {
+            s.append("frozenset(");
+        }
+
+        s.append("{");
+
+        for (int k = 0; k < entryLimit(); k++) {
+            PyObject x = elementAt(k);
+
+            if (x == null) {
+                continue;
+            }
+
+            if (!first) {
+                s.append(", ");
+            }
+            first = false;
+
+            s.append(x.callMethod("__repr__", args).str());
+        }
+
+        s.append("}");
+
+        if (this.frozen) {
+            s.append(")");
+        }
+
+        return s.toString();
+    }
+
+    // The methods accept any iterable, but the operators require both
+    // operands to be sets, as in Python.
+    private static PySet asSet(PyObject x) {
+        if (x instanceof PySet) {
+            return (PySet) x;
+        }
+
+        return of(x, true);
+    }
+
+    private static PySet operand(ArrayList<PyObject> args, String op) {
+        if (args.size() != 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 2 arguments, got " + args.size());
+        }
+
+        PyObject self = args.get(1);
+        PyObject other = args.get(0);
+
+        if (!(other instanceof PySet)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: unsupported operand type(s) for " + op + ": '"
+                    + self.getType().str() + "' and '" + other.getType().str() + "'");
+        }
+
+        return (PySet) other;
+    }
+
+    private static HashMap<String, PyCallable> sharedFuns() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__contains__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(self.contains(args.get(0)));
+            }
+        });
+
+        funs.put("__len__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyInt(self.len());
+            }
+        });
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PySetIterator(self);
+            }
+        });
+
+        funs.put("__or__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "|");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.union(other);
+            }
+        });
+
+        funs.put("__and__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "&");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.intersection(other);
+            }
+        });
+
+        funs.put("__sub__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "-");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.difference(other);
+            }
+        });
+
+        funs.put("__xor__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "^");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.symmetricDifference(other);
+            }
+        });
+
+        funs.put("__le__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "<=");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(self.isSubset(other));
+            }
+        });
+
+        funs.put("__lt__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, "<");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(self.len() < other.len() && self.isSubset(other));
+            }
+        });
+
+        funs.put("__ge__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, ">=");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(other.isSubset(self));
+            }
+        });
+
+        funs.put("__gt__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet other = operand(args, ">");
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(other.len() < self.len() && other.isSubset(self));
+            }
+        });
+
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                // A set and a frozenset with the same members are equal.
+                if (!(args.get(0) instanceof PySet)) {
+                    return new PyBool(false);
+                }
+
+                PySet other = (PySet) args.get(0);
+
+                return new PyBool(self.len() == other.len() && self.isSubset(other));
+            }
+        });
+
+        funs.put("__ne__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 2 arguments, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+                PyBool result = (PyBool) self.callMethod("__eq__", selflessArgs(args));
+
+                return new PyBool(!result.getVal());
+            }
+        });
+
+        funs.put("copy", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.copy(self.frozen);
+            }
+        });
+
+        funs.put("union", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+                PySet result = self.copy(self.frozen);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    result.addAll(asSet(args.get(k)));
+                }
+
+                return result;
+            }
+        });
+
+        funs.put("intersection", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+                PySet result = self.copy(self.frozen);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    result = result.intersection(asSet(args.get(k)));
+                }
+
+                return result;
+            }
+        });
+
+        funs.put("difference", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+                PySet result = self.copy(self.frozen);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    result = result.difference(asSet(args.get(k)));
+                }
+
+                return result;
+            }
+        });
+
+        funs.put("symmetric_difference", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return self.symmetricDifference(asSet(args.get(0)));
+            }
+        });
+
+        funs.put("issubset", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(self.isSubset(asSet(args.get(0))));
+            }
+        });
+
+        funs.put("issuperset", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(asSet(args.get(0)).isSubset(self));
+            }
+        });
+
+        funs.put("isdisjoint", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyBool(self.intersection(asSet(args.get(0))).len() == 0);
+            }
+        });
+
+        return funs;
+    }
+
+    public static HashMap<String, PyCallable> frozenFuns() {
+        HashMap<String, PyCallable> funs = sharedFuns();
+
+        funs.put("__hash__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + args.size());
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                return new PyInt(self.frozenHash());
+            }
+        });
+
+        return funs;
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = sharedFuns();
+
+        funs.put("add", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+                self.add(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("remove", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+                PyObject x = args.get(0);
+
+                if (!self.discard(x)) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "KeyError: " + x.callMethod("__repr__", newargs()).str());
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("discard", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+                self.discard(args.get(0));
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("pop", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                int ix = self.firstEntry();
+
+                if (ix < 0) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "KeyError: 'pop from an empty set'");
+                }
+
+                PyObject x = self.elementAt(ix);
+                self.discard(x);
+
+                return x;
+            }
+        });
+
+        funs.put("clear", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 0 arguments, got " + (args.size() - 1));
+                }
+
+                PySet self = (PySet) args.get(args.size() - 1);
+                self.clear();
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("update", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    self.addAll(asSet(args.get(k)));
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("intersection_update", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    self.replaceWith(self.intersection(asSet(args.get(k))));
+                }
+
+                return new PyNone();
+            }
+        });
+
+        funs.put("difference_update", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PySet self = (PySet) args.get(args.size() - 1);
+
+                for (int k = 0; k < args.size() - 1; k++) {
+                    self.replaceWith(self.difference(asSet(args.get(k))));
+                }
+
+                return new PyNone();
+            }
+        });
+
+        return funs;
+    }
+}
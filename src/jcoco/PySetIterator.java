@@ -0,0 +1,75 @@
+/**
+ * PySetIterator.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Iterates over the members of a set or frozenset. As in Python, changing
+ * the size of the set while iterating over it is an error.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+
+public class PySetIterator extends PyPrimitiveTypeAdapter {
+
+    private PySet set;
+    private int index = 0;
+    private int size;
+
+    public PySetIterator(PySet set) {
+        super("set_iterator", PyType.PyTypeId.PySetIteratorType, true);
+        this.set = set;
+        this.size = set.len();
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("__iter__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
+                }
+
+                PySetIterator self = (PySetIterator) args.get(args.size() - 1);
+
+                return self;
+            }
+        });
+
+        funs.put("__next__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 1) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
+                }
+
+                PySetIterator self = (PySetIterator) args.get(args.size() - 1);
+
+                if (self.set.len() != self.size) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "RuntimeError: Set changed size during iteration");
+                }
+
+                while (self.index < self.set.entryLimit()) {
+                    PyObject x = self.set.elementAt(self.index++);
+
+                    if (x != null) {
+                        return x;
+                    }
+                }
+
+                throw new PyException(ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
+            }
+        });
+
+        return funs;
+    }
+}
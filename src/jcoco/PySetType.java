@@ -0,0 +1,42 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the set type (and the frozenset type) which is called
+ * by writing set or frozenset in a Python program. Called with no arguments
+ * it creates an empty set. Otherwise the set holds the values produced by
+ * the iterable it is given.
+ */
+
+public class PySetType extends PyType {
+
+    private boolean frozen;
+
+    public PySetType(boolean frozen) {
+        super(frozen ? "frozenset" : "set", frozen ? PyType.PyTypeId.PyFrozenSetTypeId : PyType.PyTypeId.PySetTypeId);
+        this.frozen = frozen;
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+
+        if (args.size() > 1) {
+            throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected at most 1 argument, got " + args.size());
+        }
+
+        if (args.isEmpty()) {
+            return new PySet(this.frozen);
+        }
+
+        return PySet.of(args.get(0), this.frozen);
+    }
+}
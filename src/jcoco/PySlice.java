@@ -0,0 +1,140 @@
+/**
+ * PySlice.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The JCoCo implementation of slice objects. A slice is created by the
+ * BUILD_SLICE instruction when a program writes x[start:stop] or
+ * x[start:stop:step] and is passed to __getitem__ or __setitem__ of x. Any
+ * of start, stop, and step may be None.
+ *
+ * The indices method resolves a slice against the length of a sequence the
+ * same way CPython does: negative positions count from the end, positions
+ * past either end are clipped, and a missing start or stop depends on the
+ * sign of step.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public class PySlice extends PyPrimitiveTypeAdapter {
+
+    private final PyObject start;
+    private final PyObject stop;
+    private final PyObject step;
+
+    public PySlice(PyObject start, PyObject stop, PyObject step) {
+        super("slice", PyTypeId.PySliceTypeId, true);
+        this.start = start;
+        this.stop = stop;
+        this.step = step;
+    }
+
+    private static Integer toIndex(PyObject x) {
+        if (x instanceof PyNone) {
+            return null;
+        }
+
+        if (x instanceof PyInt) {
+            return ((PyInt) x).getVal();
+        }
+
+        if (x instanceof PyBool) {
+            return ((PyBool) x).getIntVal();
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                "TypeError: slice indices must be integers or None");
+    }
+
+    /**
+     * Resolves the slice for a sequence of the given length.
+     *
+     * @return the start, stop, step, and number of elements of the slice
+     */
+    public int[] indices(int length) {
+        Integer startVal = toIndex(this.start);
+        Integer stopVal = toIndex(this.stop);
+        Integer stepVal = toIndex(this.step);
+        int st = stepVal == null ? 1 : stepVal;
+
+        if (st == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: slice step cannot be zero");
+        }
+
+        int lo = startVal == null ? (st < 0 ? length - 1 : 0) : adjust(startVal, length, st);
+        int hi = stopVal == null ? (st < 0 ? -1 : length) : adjust(stopVal, length, st);
+        int count;
+
+        if (st < 0) {
+            count = hi < lo ? (lo - hi - 1) / -st + 1 : 0;
+        } else {
+            count = lo < hi ? (hi - lo - 1) / st + 1 : 0;
+        }
+
+        return new int[]{lo, hi, st, count};
+    }
+
+    private static int adjust(int index, int length, int step) {
+        if (index < 0) {
+            index += length;
+
+            if (index < 0) {
+                return step < 0 ? -1 : 0;
+            }
+        } else if (index >= length) {
+            return step < 0 ? length - 1 : length;
+        }
+
+        return index;
+    }
+
+    @Override
+    public String str() {
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+
+        return "slice(" + this.start.callMethod("__repr__", args).str() + ", "
+                + this.stop.callMethod("__repr__", args).str() + ", "
+                + this.step.callMethod("__repr__", args).str() + ")";
+    }
+
+    public static HashMap<String, PyCallable> funs() {
+        HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
+
+        funs.put("indices", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                if (args.size() != 2) {
+                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                            "TypeError: expected 1 argument, got " + (args.size() - 1));
+                }
+
+                PySlice self = (PySlice) args.get(args.size() - 1);
+
+                if (!(args.get(0) instanceof PyInt)) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "TypeError: slice indices must be integers");
+                }
+
+                int[] indices = self.indices(((PyInt) args.get(0)).getVal());
+                ArrayList<PyObject> result = new ArrayList<PyObject>();
+                result.add(new PyInt(indices[0]));
+                result.add(new PyInt(indices[1]));
+                result.add(new PyInt(indices[2]));
+
+                return new PyTuple(result);
+            }
+        });
+
+        return funs;
+    }
+}
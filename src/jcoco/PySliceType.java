@@ -0,0 +1,42 @@
+package jcoco;
+
+import java.util.ArrayList;
+
+/**
+ * <fileName>
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description: This is the slice type which is called by writing slice in a
+ * Python program. slice(stop) is the same as slice(None, stop, None), and
+ * slice(start, stop) or slice(start, stop, step) give the positions
+ * explicitly.
+ */
+
+public class PySliceType extends PyType {
+
+    public PySliceType() {
+        super("slice", PyType.PyTypeId.PySliceTypeId);
+    }
+
+    @Override
+    public PyObject __call__(ArrayList<PyObject> args) {
+
+        // The arguments are in reverse order.
+        switch (args.size()) {
+            case 1:
+                return new PySlice(new PyNone(), args.get(0), new PyNone());
+            case 2:
+                return new PySlice(args.get(1), args.get(0), new PyNone());
+            case 3:
+                return new PySlice(args.get(2), args.get(1), args.get(0));
+            default:
+                throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                        "TypeError: slice expected 1 to 3 arguments, got " + args.size());
+        }
+    }
+}
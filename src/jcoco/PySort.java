@@ -0,0 +1,160 @@
+/**
+ * PySort.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * Sorting for list.sort and the sorted built-in. Lists of only ints, floats,
+ * or strs are sorted by their PyListStorage directly on the unboxed arrays.
+ * Anything else is sorted here with java's TimSort (which, like Python's
+ * sort, is stable and fast on data that is already partly in order) and a
+ * comparator picked by looking at the elements once: ints, numbers, strs,
+ * and tuples are compared natively, and only other objects (instances of
+ * classes defined in the program, for instance) are compared by calling
+ * their __lt__ method.
+ *
+ * A reverse sort uses the reversed comparator, which keeps equal elements in
+ * their original order just as Python does.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import jcoco.PyException.ExceptionType;
+
+final class PySort {
+
+    private PySort() {
+    }
+
+    private static final Comparator<PyObject> INTS = new Comparator<PyObject>() {
+        @Override
+        public int compare(PyObject a, PyObject b) {
+            return Integer.compare(((PyInt) a).getVal(), ((PyInt) b).getVal());
+        }
+    };
+
+    private static final Comparator<PyObject> NUMBERS = new Comparator<PyObject>() {
+        @Override
+        public int compare(PyObject a, PyObject b) {
+            double x = toDouble(a);
+            double y = toDouble(b);
+
+            return x < y ? -1 : (y < x ? 1 : 0);
+        }
+    };
+
+    private static final Comparator<PyObject> STRS = new Comparator<PyObject>() {
+        @Override
+        public int compare(PyObject a, PyObject b) {
+            return a.str().compareTo(b.str());
+        }
+    };
+
+    private static final Comparator<PyObject> OBJECTS = new Comparator<PyObject>() {
+        @Override
+        public int compare(PyObject a, PyObject b) {
+            if (PyTuple.lessThan(a, b)) {
+                return -1;
+            }
+
+            return PyTuple.lessThan(b, a) ? 1 : 0;
+        }
+    };
+
+    private static double toDouble(PyObject x) {
+        if (x instanceof PyInt) {
+            return ((PyInt) x).getVal();
+        }
+
+        return ((PyFloat) x).getVal();
+    }
+
+    /**
+     * Picks the comparator for the given elements.
+     */
+    static Comparator<PyObject> comparator(List<PyObject> items) {
+        boolean ints = true;
+        boolean numbers = true;
+        boolean strs = true;
+
+        for (PyObject x : items) {
+            ints = ints && x instanceof PyInt;
+            numbers = numbers && (x instanceof PyInt || x instanceof PyFloat);
+            strs = strs && x instanceof PyStr;
+
+            if (!numbers && !strs) {
+                return OBJECTS;
+            }
+        }
+
+        if (ints) {
+            return INTS;
+        }
+
+        return numbers ? NUMBERS : STRS;
+    }
+
+    /**
+     * Sorts the list in place.
+     */
+    static void sort(List<PyObject> items, boolean reverse) {
+        Comparator<PyObject> comparator = comparator(items);
+
+        try {
+            Collections.sort(items, reverse ? Collections.reverseOrder(comparator) : comparator);
+        } catch (IllegalArgumentException e) {
+            // TimSort noticed that __lt__ does not define an ordering.
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: inconsistent comparison while sorting");
+        }
+    }
+
+    /**
+     * Returns the elements of the storage sorted by the values the key
+     * function gives for them. The key function is called once per element.
+     */
+    static PyListStorage sortByKey(PyListStorage storage, PyObject key, boolean reverse) {
+        int size = storage.size();
+        final ArrayList<PyObject> keys = new ArrayList<PyObject>(size);
+        Integer[] order = new Integer[size];
+        ArrayList<PyObject> args = new ArrayList<PyObject>(1);
+
+        for (int k = 0; k < size; k++) {
+            args.add(storage.get(k));
+            keys.add(key.callMethod("__call__", args));
+            args.clear();
+            order[k] = k;
+        }
+
+        final Comparator<PyObject> byKey = comparator(keys);
+        Comparator<Integer> comparator = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return byKey.compare(keys.get(a), keys.get(b));
+            }
+        };
+
+        try {
+            Arrays.sort(order, reverse ? Collections.reverseOrder(comparator) : comparator);
+        } catch (IllegalArgumentException e) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "ValueError: inconsistent comparison while sorting");
+        }
+
+        ArrayList<PyObject> result = new ArrayList<PyObject>(size);
+
+        for (int k = 0; k < size; k++) {
+            result.add(storage.get(order[k]));
+        }
+
+        return PyListStorage.of(result);
+    }
+}
@@ -170,6 +170,22 @@ public class PyStack<T> {
         throw new PyException(ExceptionType.PYEMPTYSTACKEXCEPTION, "Attempt to get top of empty stack.");
     }
 
+    // Returns the element depth positions down the stack without popping
+    // anything. A depth of 1 is the top of the stack.
+    public T peek(int depth) {
+        __PyStackElement<T> elem = this.tos;
+
+        for (int k = 1; k < depth && elem != null; k++) {
+            elem = elem.next;
+        }
+
+        if (elem == null || depth < 1) {
+            throw new PyException(ExceptionType.PYEMPTYSTACKEXCEPTION, "Attempt to peek below the bottom of the stack.");
+        }
+
+        return elem.object;
+    }
+
     public boolean isEmpty() {
         return (this.tos == null);
     }
@@ -10,37 +10,586 @@
  * Description:
  * The JCoCo implementation of str objects.
  *
+ * Concatenating two strings whose total length is ROPE_THRESHOLD or more does
+ * not copy them. The result is a rope: a node that refers to its left and
+ * right halves. The characters are copied into one java String only when
+ * they are needed (by str(), which everything that looks at the characters
+ * goes through), and that String replaces the node's halves. A loop that
+ * builds a string with s = s + piece therefore takes linear time instead of
+ * quadratic. Appending a short piece to a rope extends its last leaf rather
+ * than adding a level to the tree, and a rope that gets too deep is rebuilt
+ * as a balanced tree of its leaves. Strs use the shared method lookup of
+ * PyPrimitiveTypeAdapter, so the nodes of a rope are small.
+ *
+ * The str methods (split, join, find, replace, and so on) work directly on
+ * the java String in one pass, and the % operator and format are
+ * implemented by PyStrFormatter.
+ *
  * Not fully implemented.
  */
 package jcoco;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Locale;
 import jcoco.PyException.ExceptionType;
 import jcoco.PyType.PyTypeId;
 
 public class PyStr extends PyPrimitiveTypeAdapter {
 
+    // Shorter results of + are copied into a flat java String.
+    private static final int ROPE_THRESHOLD = 256;
+    // A rope deeper than this is rebalanced.
+    private static final int MAX_DEPTH = 48;
+
+    // val is null while the string is a rope, and then left and right hold
+    // its halves.
     private String val;
+    private PyStr left;
+    private PyStr right;
+    private final int length;
+    private int depth;
+    private int hash;
+    private boolean hashed;
+
+    // The strs of one Latin-1 character, which indexing and iterating over
+    // a str return instead of creating a new str per character.
+    private static final PyStr[] CHARS = new PyStr[256];
+    // String constants and other strs that are made only once and shared.
+    private static final HashMap<String, PyStr> INTERNED = new HashMap<String, PyStr>();
+
+    static {
+        for (int c = 0; c < CHARS.length; c++) {
+            CHARS[c] = new PyStr(String.valueOf((char) c));
+        }
+    }
 
     public PyStr(String sVal) {
-        super("str",PyTypeId.PyStrType);
-        initMethods(funs());
+        super("str", PyTypeId.PyStrType, true);
         this.val = sVal;
+        this.length = sVal.length();
 
     }
 
+    private PyStr(PyStr left, PyStr right) {
+        super("str", PyTypeId.PyStrType, true);
+        this.left = left;
+        this.right = right;
+        this.length = left.length + right.length;
+        this.depth = 1 + Math.max(left.depth, right.depth);
+    }
+
     @Override
     public String str() {
+        if (this.val == null) {
+            char[] chars = new char[this.length];
+            int pos = 0;
+
+            for (PyStr leaf : leaves()) {
+                leaf.val.getChars(0, leaf.length, chars, pos);
+                pos += leaf.length;
+            }
+
+            this.val = new String(chars);
+            this.left = null;
+            this.right = null;
+            this.depth = 0;
+        }
+
         return this.val;
     }
 
+    public int len() {
+        return this.length;
+    }
+
+    /**
+     * The str of a single character. Latin-1 characters share one str each.
+     */
+    public static PyStr valueOf(char c) {
+        if (c < CHARS.length) {
+            return CHARS[c];
+        }
+
+        return new PyStr(String.valueOf(c));
+    }
+
+    /**
+     * The one shared str with the given characters. The parser interns
+     * string constants so every occurrence of a constant is the same object.
+     */
+    public static PyStr intern(String s) {
+        if (s.length() == 1) {
+            return valueOf(s.charAt(0));
+        }
+
+        PyStr str = INTERNED.get(s);
+
+        if (str == null) {
+            str = new PyStr(s);
+            INTERNED.put(s, str);
+        }
+
+        return str;
+    }
+
+    /**
+     * The hash of the str, computed the first time it is needed and then
+     * kept.
+     */
+    public int hash() {
+        if (!this.hashed) {
+            this.hash = str().hashCode();
+            this.hashed = true;
+        }
+
+        return this.hash;
+    }
+
+    // The flat strings of a rope from left to right.
+    private ArrayList<PyStr> leaves() {
+        ArrayList<PyStr> leaves = new ArrayList<PyStr>();
+        ArrayDeque<PyStr> stack = new ArrayDeque<PyStr>();
+        stack.push(this);
+
+        while (!stack.isEmpty()) {
+            PyStr node = stack.pop();
+
+            if (node.val != null) {
+                leaves.add(node);
+            } else {
+                stack.push(node.right);
+                stack.push(node.left);
+            }
+        }
+
+        return leaves;
+    }
+
+    private static PyStr balanced(ArrayList<PyStr> leaves, int lo, int hi) {
+        if (hi - lo == 1) {
+            return leaves.get(lo);
+        }
+
+        int mid = (lo + hi) >>> 1;
+
+        return new PyStr(balanced(leaves, lo, mid), balanced(leaves, mid, hi));
+    }
+
+    public static PyStr concat(PyStr a, PyStr b) {
+        if (a.length == 0) {
+            return b;
+        }
+
+        if (b.length == 0) {
+            return a;
+        }
+
+        if (a.length + b.length < ROPE_THRESHOLD) {
+            return new PyStr(a.str() + b.str());
+        }
+
+        if (b.length < ROPE_THRESHOLD && a.val == null && a.right.val != null
+                && a.right.length + b.length < ROPE_THRESHOLD) {
+            return new PyStr(a.left, new PyStr(a.right.val + b.str()));
+        }
+
+        PyStr result = new PyStr(a, b);
+
+        if (result.depth > MAX_DEPTH) {
+            ArrayList<PyStr> leaves = result.leaves();
+            result = balanced(leaves, 0, leaves.size());
+        }
+
+        return result;
+    }
+
     public PyStr charAt(int index) {
-        if (index >= this.val.length()) {
+        if (index >= len()) {
             throw new PyException(ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop iteration");
         }
 
-        return new PyStr(((Character) this.val.charAt(index)).toString());
+        return valueOf(str().charAt(index));
+    }
+
+    public PyStr slice(PySlice slice) {
+        int[] indices = slice.indices(len());
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+
+        if (step == 1) {
+            return new PyStr(str().substring(start, start + count));
+        }
+
+        StringBuilder s = new StringBuilder(count);
+
+        for (int k = 0; k < count; k++) {
+            s.append(str().charAt(start + k * step));
+        }
+
+        return new PyStr(s.toString());
+    }
+
+    // The k-th argument of a method call (not counting self). Method
+    // arguments arrive in reverse order with self last.
+    private static PyObject arg(ArrayList<PyObject> args, int k) {
+        return args.get(args.size() - 2 - k);
+    }
+
+    private static String strArg(ArrayList<PyObject> args, int k, String method) {
+        PyObject obj = arg(args, k);
+
+        if (!(obj instanceof PyStr)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: " + method + "() argument must be str, not " + obj.getType().str());
+        }
+
+        return obj.str();
+    }
+
+    private static void checkArgs(ArrayList<PyObject> args, int min, int max) {
+        int count = args.size() - 1;
+
+        if (count < min || count > max) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected " + (min == max ? "" + min : min + " to " + max)
+                    + " arguments, got " + count);
+        }
+    }
+
+    // The optional start and end arguments of find, count, startswith, and
+    // the like, adjusted the way a slice would be. As in CPython, a start
+    // past the end is left there so that nothing, not even the empty str, is
+    // found from it.
+    private static int[] bounds(ArrayList<PyObject> args, int first, int len) {
+        int[] bounds = {0, len};
+
+        for (int k = 0; k < 2 && first + k < args.size() - 1; k++) {
+            PyObject obj = arg(args, first + k);
+
+            if (obj instanceof PyNone) {
+                continue;
+            }
+
+            int index = ((PyInt) obj).getVal();
+
+            if (index < 0) {
+                index = Math.max(index + len, 0);
+            }
+
+            bounds[k] = k == 0 ? index : Math.min(index, len);
+        }
+
+        return bounds;
+    }
+
+    private static boolean isSpace(char c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c);
+    }
+
+    private static boolean isLineBreak(char c) {
+        switch (c) {
+            case '\n':
+            case '\r':
+            case '\u000b':
+            case '\u000c':
+            case '\u001c':
+            case '\u001d':
+            case '\u001e':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Splits the string the way Python's str.split does: on runs of white
+     * space when sep is null, or else on each occurrence of sep. At most
+     * maxsplit splits are made when maxsplit is not negative.
+     */
+    public ArrayList<PyObject> split(String sep, int maxsplit) {
+        String s = str();
+        int n = s.length();
+        ArrayList<PyObject> result = new ArrayList<PyObject>();
+
+        if (sep == null) {
+            int i = 0;
+
+            while (true) {
+                while (i < n && isSpace(s.charAt(i))) {
+                    i++;
+                }
+
+                if (i == n) {
+                    break;
+                }
+
+                if (maxsplit >= 0 && result.size() == maxsplit) {
+                    result.add(new PyStr(s.substring(i)));
+                    break;
+                }
+
+                int start = i;
+                while (i < n && !isSpace(s.charAt(i))) {
+                    i++;
+                }
+                result.add(new PyStr(s.substring(start, i)));
+            }
+
+            return result;
+        }
+
+        if (sep.isEmpty()) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "ValueError: empty separator");
+        }
+
+        int start = 0;
+        int found;
+
+        while ((maxsplit < 0 || result.size() < maxsplit) && (found = s.indexOf(sep, start)) >= 0) {
+            result.add(new PyStr(s.substring(start, found)));
+            start = found + sep.length();
+        }
+
+        result.add(new PyStr(s.substring(start)));
+
+        return result;
+    }
+
+    /**
+     * Removes the characters in chars (or white space when chars is null)
+     * from the front and/or back of the string.
+     */
+    public PyStr strip(String chars, boolean front, boolean back) {
+        String s = str();
+        int start = 0;
+        int end = s.length();
+
+        if (front) {
+            while (start < end && (chars == null ? isSpace(s.charAt(start)) : chars.indexOf(s.charAt(start)) >= 0)) {
+                start++;
+            }
+        }
+
+        if (back) {
+            while (end > start && (chars == null ? isSpace(s.charAt(end - 1)) : chars.indexOf(s.charAt(end - 1)) >= 0)) {
+                end--;
+            }
+        }
+
+        if (start == 0 && end == s.length()) {
+            return this;
+        }
+
+        return new PyStr(s.substring(start, end));
+    }
+
+    /**
+     * Joins the strs of a list (or any other iterable) with this string
+     * between them.
+     */
+    public PyStr join(PyObject iterable) {
+        PyList items = iterable instanceof PyList ? (PyList) iterable : PyList.of(iterable);
+        String sep = str();
+        int count = items.len();
+        int size = sep.length() * Math.max(count - 1, 0);
+
+        for (int k = 0; k < count; k++) {
+            PyObject item = items.getVal(k);
+
+            if (!(item instanceof PyStr)) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "TypeError: sequence item " + k + ": expected str instance, "
+                        + item.getType().str() + " found");
+            }
+
+            size += ((PyStr) item).len();
+        }
+
+        StringBuilder s = new StringBuilder(size);
+
+        for (int k = 0; k < count; k++) {
+            if (k > 0) {
+                s.append(sep);
+            }
+
+            s.append(items.getVal(k).str());
+        }
+
+        return new PyStr(s.toString());
+    }
+
+    /**
+     * Returns a copy of the string with the first count (or all, when count
+     * is negative) occurrences of old replaced by replacement.
+     */
+    public PyStr replace(String old, String replacement, int count) {
+        String s = str();
+
+        if (count == 0) {
+            return this;
+        }
+
+        StringBuilder result = new StringBuilder(s.length());
+
+        if (old.isEmpty()) {
+            // An empty string matches before each character and at the end.
+            int k = 0;
+
+            for (; k < s.length() && (count < 0 || k < count); k++) {
+                result.append(replacement).append(s.charAt(k));
+            }
+
+            result.append(s, k, s.length());
+
+            if (k == s.length() && (count < 0 || k < count)) {
+                result.append(replacement);
+            }
+
+            return new PyStr(result.toString());
+        }
+
+        int start = 0;
+        int found;
+        int replaced = 0;
+
+        while ((count < 0 || replaced < count) && (found = s.indexOf(old, start)) >= 0) {
+            result.append(s, start, found).append(replacement);
+            start = found + old.length();
+            replaced++;
+        }
+
+        if (replaced == 0) {
+            return this;
+        }
+
+        result.append(s, start, s.length());
+
+        return new PyStr(result.toString());
+    }
+
+    /**
+     * The number of non-overlapping occurrences of sub in s[start:end].
+     */
+    public int count(String sub, int start, int end) {
+        String s = str();
+
+        if (end - start < sub.length()) {
+            return 0;
+        }
+
+        if (sub.isEmpty()) {
+            return end - start + 1;
+        }
+
+        int count = 0;
+        int found = s.indexOf(sub, start);
+
+        while (found >= 0 && found + sub.length() <= end) {
+            count++;
+            found = s.indexOf(sub, found + sub.length());
+        }
+
+        return count;
+    }
+
+    // The index of sub in s[start:end] (searching from the right when
+    // reverse is set), or -1 if it is not there.
+    private int find(String sub, int start, int end, boolean reverse) {
+        if (end - start < sub.length()) {
+            return -1;
+        }
+
+        String s = str();
+        int found = reverse ? s.lastIndexOf(sub, end - sub.length()) : s.indexOf(sub, start);
+
+        if (found < start || found + sub.length() > end) {
+            return -1;
+        }
+
+        return found;
+    }
+
+    private boolean matches(String affix, int start, int end, boolean suffix) {
+        if (end - start < affix.length()) {
+            return false;
+        }
+
+        return str().startsWith(affix, suffix ? end - affix.length() : start);
+    }
+
+    // The search methods find, rfind, index, and rindex share this.
+    private static PyCallableAdapter finder(final String name, final boolean reverse, final boolean raise) {
+        return new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 3);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                int[] bounds = bounds(args, 1, self.len());
+                int found = self.find(strArg(args, 0, name), bounds[0], bounds[1], reverse);
+
+                if (found < 0 && raise) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "ValueError: substring not found");
+                }
+
+                return new PyInt(found);
+            }
+        };
+    }
+
+    // startswith and endswith share this. The affix may be a tuple of strs,
+    // any one of which may match.
+    private static PyCallableAdapter affixMatcher(final String name, final boolean suffix) {
+        return new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 3);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                int[] bounds = bounds(args, 1, self.len());
+                PyObject affix = arg(args, 0);
+
+                if (affix instanceof PyTuple) {
+                    PyTuple affixes = (PyTuple) affix;
+
+                    for (int k = 0; k < affixes.size(); k++) {
+                        if (self.matches(affixes.getVal(k).str(), bounds[0], bounds[1], suffix)) {
+                            return new PyBool(true);
+                        }
+                    }
+
+                    return new PyBool(false);
+                }
+
+                return new PyBool(self.matches(strArg(args, 0, name), bounds[0], bounds[1], suffix));
+            }
+        };
+    }
+
+    // strip, lstrip, and rstrip share this.
+    private static PyCallableAdapter stripper(final String name, final boolean front, final boolean back) {
+        return new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 0, 1);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                String chars = null;
+
+                if (args.size() == 2 && !(args.get(0) instanceof PyNone)) {
+                    chars = strArg(args, 0, name);
+                }
+
+                return self.strip(chars, front, back);
+            }
+        };
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -62,7 +611,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError:operand'" + args.get(0).str() + " must be string in + expression.");
                 }
 
-                return new PyStr(self.str() + other.str());
+                return concat(self, other);
             }
         });
 
@@ -75,7 +624,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr self = (PyStr) args.get(args.size() - 1);
 
-                return new PyInt(self.val.hashCode());
+                return new PyInt(self.hash());
             }
         });
 
@@ -125,7 +674,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                 PyStr self = (PyStr) args.get(args.size() - 1);
 
                 try {
-                    if (self.val.equals("")) {
+                    if (self.len() == 0) {
                         return new PyBool(false);
                     }
 
@@ -149,8 +698,8 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                 int k;
 
                 try {
-                    for (k = self.val.length() - 1; k >= 0; k--) {
-                        result = new PyFunList(new PyStr((new Character(self.val.charAt(k))).toString()), result);
+                    for (k = self.len() - 1; k >= 0; k--) {
+                        result = new PyFunList(valueOf(self.str().charAt(k)), result);
 
                     }
 
@@ -174,8 +723,8 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                 int k;
 
                 try {
-                    for (k=0; k<self.val.length(); k++) {
-                        result.add(new PyStr((new Character(self.val.charAt(k))).toString()));
+                    for (k=0; k<self.len(); k++) {
+                        result.add(valueOf(self.str().charAt(k)));
                     }
 
                 } catch (Exception ex) {
@@ -208,10 +757,10 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr self = (PyStr) args.get(args.size() - 1);
 
-                if (self.val.contains("'")) {
-                    return new PyStr("\"" + self.val + "\"");
+                if (self.str().contains("'")) {
+                    return new PyStr("\"" + self.str() + "\"");
                 } else {
-                    return new PyStr("'" + self.val + "'");
+                    return new PyStr("'" + self.str() + "'");
                 }
             }
         });
@@ -219,69 +768,163 @@ public class PyStr extends PyPrimitiveTypeAdapter {
         funs.put("split", new PyCallableAdapter() {
             @Override
             public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 0, 2);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                String sep = null;
+                int maxsplit = -1;
+
+                if (args.size() > 1 && !(arg(args, 0) instanceof PyNone)) {
+                    sep = strArg(args, 0, "split");
+                }
+
                 if (args.size() > 2) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 or 2 arguments, got " + args.size());
+                    maxsplit = ((PyInt) arg(args, 1)).getVal();
                 }
 
+                return new PyList(self.split(sep, maxsplit));
+            }
+        });
+
+        funs.put("strip", stripper("strip", true, true));
+        funs.put("lstrip", stripper("lstrip", true, false));
+        funs.put("rstrip", stripper("rstrip", false, true));
+
+        funs.put("join", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
                 PyStr self = (PyStr) args.get(args.size() - 1);
 
-                String delim = " \t\n";
-                if (args.size() == 2) {
-                    PyStr sepObj = (PyStr) args.get(0);
-                    delim = sepObj.str();
-                }
+                return self.join(args.get(0));
+            }
+        });
 
-                ArrayList<PyObject> strs = new ArrayList<PyObject>();
+        funs.put("find", finder("find", false, false));
+        funs.put("rfind", finder("rfind", true, false));
+        funs.put("index", finder("index", false, true));
+        funs.put("rindex", finder("rindex", true, true));
 
-                String ss = "";
+        funs.put("count", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 3);
 
-                for (int i = 0; i < self.val.length(); i++) {
-                    if (delim.indexOf(self.val.charAt(i)) >= 0) {
-                        strs.add(new PyStr(ss));
-                        ss = "";
-                    } else {
-                        ss += self.val.charAt(i);
-                    }
-                }
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                int[] bounds = bounds(args, 1, self.len());
 
-                if (ss.length() > 0) {
-                    strs.add(new PyStr(ss));
-                }
+                return new PyInt(self.count(strArg(args, 0, "count"), bounds[0], bounds[1]));
+            }
+        });
 
-                return new PyList(strs);
+        funs.put("replace", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 2, 3);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                int count = args.size() > 3 ? ((PyInt) arg(args, 2)).getVal() : -1;
+
+                return self.replace(strArg(args, 0, "replace"), strArg(args, 1, "replace"), count);
             }
         });
 
-        funs.put("strip", new PyCallableAdapter() {
+        funs.put("startswith", affixMatcher("startswith", false));
+        funs.put("endswith", affixMatcher("endswith", true));
+
+        funs.put("encode", new PyCallableAdapter() {
             @Override
             public PyObject __call__(ArrayList<PyObject> args) {
-                if (args.size() > 2) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 or 2 arguments, got " + args.size());
-                }
+                checkArgs(args, 0, 1);
 
                 PyStr self = (PyStr) args.get(args.size() - 1);
+                String encoding = args.size() == 2 ? strArg(args, 0, "encode") : "utf-8";
 
-                String delim = " \t\n";
-                if (args.size() == 2) {
-                    PyStr sepObj = (PyStr) args.get(0);
-                    delim = sepObj.str();
-                }
+                return PyBytes.encode(self.str(), encoding);
+            }
+        });
+
+        funs.put("upper", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 0, 0);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+
+                return new PyStr(self.str().toUpperCase(Locale.ROOT));
+            }
+        });
+
+        funs.put("lower", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 0, 0);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+
+                return new PyStr(self.str().toLowerCase(Locale.ROOT));
+            }
+        });
 
-                ArrayList<PyObject> strs = new ArrayList<PyObject>();
+        funs.put("splitlines", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 0, 1);
 
-                String ss = self.val;
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                PyObject keep = args.size() == 2 ? args.get(0) : null;
+                boolean keepends = keep instanceof PyBool ? ((PyBool) keep).getVal()
+                        : keep instanceof PyInt && ((PyInt) keep).getVal() != 0;
+                String s = self.str();
+                ArrayList<PyObject> lines = new ArrayList<PyObject>();
+                int start = 0;
+                int i = 0;
+
+                while (i < s.length()) {
+                    char c = s.charAt(i);
+
+                    if (!isLineBreak(c)) {
+                        i++;
+                        continue;
+                    }
 
-                // strip white space from beginning of string
-                while (ss.length() > 0 && delim.contains((new Character(ss.charAt(0))).toString())) {
-                    ss = ss.substring(1);
+                    int end = i;
+                    i += c == '\r' && i + 1 < s.length() && s.charAt(i + 1) == '\n' ? 2 : 1;
+                    lines.add(new PyStr(s.substring(start, keepends ? i : end)));
+                    start = i;
                 }
 
-                // strip white space from end of string
-                while (ss.length() > 0 && delim.contains((new Character(ss.charAt(ss.length() - 1))).toString())) {
-                    ss = ss.substring(0, ss.length() - 2);
+                if (start < s.length()) {
+                    lines.add(new PyStr(s.substring(start)));
                 }
 
-                return new PyList(strs);
+                return new PyList(lines);
+            }
+        });
+
+        funs.put("format", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyStr self = (PyStr) args.get(args.size() - 1);
+                ArrayList<PyObject> positional = new ArrayList<PyObject>(args.size() - 1);
+
+                for (int k = args.size() - 2; k >= 0; k--) {
+                    positional.add(args.get(k));
+                }
+
+                return new PyStr(PyStrFormatter.format(self.str(), positional));
+            }
+        });
+
+        funs.put("__mod__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                checkArgs(args, 1, 1);
+
+                PyStr self = (PyStr) args.get(args.size() - 1);
+
+                return new PyStr(PyStrFormatter.percent(self.str(), args.get(0)));
             }
         });
 
@@ -293,14 +936,23 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                 }
 
                 PyStr self = (PyStr) args.get(args.size() - 1);
+
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
                 PyInt intObj = (PyInt) args.get(0);
                 int index = intObj.getVal();
 
-                if (index >= self.val.length()) {
+                if (index < 0) {
+                    index += self.len();
+                }
+
+                if (index < 0 || index >= self.len()) {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Index out of range");
                 }
 
-                return new PyStr((new Character(self.val.charAt((index))).toString()));
+                return valueOf(self.str().charAt(index));
             }
 
         });
@@ -314,7 +966,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr self = (PyStr) args.get(args.size() - 1);
 
-                return new PyInt(self.val.length());
+                return new PyInt(self.len());
             }
 
         });
@@ -349,7 +1001,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.equals(arg.val)) {
+                if (self.str().equals(arg.str())) {
                     return new PyBool(true);
                 }
 
@@ -374,7 +1026,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.equals(arg.val)) {
+                if (self.str().equals(arg.str())) {
                     return new PyBool(false);
                 }
 
@@ -399,7 +1051,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.compareTo(arg.val) < 0) {
+                if (self.str().compareTo(arg.str()) < 0) {
                     return new PyBool(true);
                 }
 
@@ -424,7 +1076,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.compareTo(arg.val) > 0) {
+                if (self.str().compareTo(arg.str()) > 0) {
                     return new PyBool(true);
                 }
 
@@ -449,7 +1101,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.compareTo(arg.val) <= 0) {
+                if (self.str().compareTo(arg.str()) <= 0) {
                     return new PyBool(true);
                 }
 
@@ -474,7 +1126,7 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
                 PyStr arg = (PyStr) args.get(0);
 
-                if (self.val.compareTo(arg.val) >= 0) {
+                if (self.str().compareTo(arg.str()) >= 0) {
                     return new PyBool(true);
                 }
 
@@ -0,0 +1,839 @@
+/**
+ * PyStrFormatter.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * This class implements the two ways Python formats values into strings:
+ * printf-style formatting (format % values) and str.format. Both parse their
+ * format string once, left to right, into a StringBuilder, and both lay out
+ * each value with formatValue, which follows Python's format specification
+ * mini-language ([[fill]align][sign][#][0][width][,][.precision][type]). A
+ * printf-style conversion like %-08.3f is turned into the same Spec.
+ *
+ * Floats are rounded from their exact binary value with round-half-even, the
+ * way C's printf (and so CPython) does it, so for example '%.2f' % 2.675 is
+ * '2.67' just as in Python.
+ */
+package jcoco;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+
+final class PyStrFormatter {
+
+    private PyStrFormatter() {
+    }
+
+    // A parsed format specification.
+    private static final class Spec {
+
+        char fill = ' ';
+        char align = 0;
+        char sign = '-';
+        boolean alternate = false;
+        int width = -1;
+        boolean grouping = false;
+        int precision = -1;
+        char type = 0;
+    }
+
+    private static PyException valueError(String message) {
+        return new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "ValueError: " + message);
+    }
+
+    private static PyException typeError(String message) {
+        return new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: " + message);
+    }
+
+    private static String strOf(PyObject value) {
+        return value.callMethod("__str__", new ArrayList<PyObject>()).str();
+    }
+
+    private static String reprOf(PyObject value) {
+        return value.callMethod("__repr__", new ArrayList<PyObject>()).str();
+    }
+
+    /**
+     * Implements format % values.
+     */
+    public static String percent(String format, PyObject values) {
+        ArrayList<PyObject> items = new ArrayList<PyObject>();
+        PyDict mapping = null;
+
+        if (values instanceof PyTuple) {
+            PyTuple tuple = (PyTuple) values;
+            for (int k = 0; k < tuple.size(); k++) {
+                items.add(tuple.getVal(k));
+            }
+        } else {
+            items.add(values);
+            if (values instanceof PyDict) {
+                mapping = (PyDict) values;
+            }
+        }
+
+        StringBuilder out = new StringBuilder(format.length() + 16);
+        int next = 0;
+        int i = 0;
+        int n = format.length();
+
+        while (i < n) {
+            int pct = format.indexOf('%', i);
+
+            if (pct < 0) {
+                out.append(format, i, n);
+                break;
+            }
+
+            out.append(format, i, pct);
+            i = pct + 1;
+
+            if (i >= n) {
+                throw valueError("incomplete format");
+            }
+
+            PyObject value = null;
+
+            if (format.charAt(i) == '(') {
+                int close = format.indexOf(')', i);
+
+                if (close < 0) {
+                    throw valueError("incomplete format key");
+                }
+
+                if (mapping == null) {
+                    throw typeError("format requires a mapping");
+                }
+
+                value = mapping.getItem(new PyStr(format.substring(i + 1, close)));
+                i = close + 1;
+            }
+
+            Spec spec = new Spec();
+            boolean zero = false;
+
+            for (; i < n; i++) {
+                char c = format.charAt(i);
+
+                if (c == '-') {
+                    spec.align = '<';
+                } else if (c == '+') {
+                    spec.sign = '+';
+                } else if (c == ' ') {
+                    if (spec.sign != '+') {
+                        spec.sign = ' ';
+                    }
+                } else if (c == '#') {
+                    spec.alternate = true;
+                } else if (c == '0') {
+                    zero = true;
+                } else {
+                    break;
+                }
+            }
+
+            if (i < n && format.charAt(i) == '*') {
+                spec.width = intItem(items, next++);
+                if (spec.width < 0) {
+                    spec.align = '<';
+                    spec.width = -spec.width;
+                }
+                i++;
+            } else {
+                int start = i;
+                while (i < n && Character.isDigit(format.charAt(i))) {
+                    i++;
+                }
+                if (i > start) {
+                    spec.width = Integer.parseInt(format.substring(start, i));
+                }
+            }
+
+            if (i < n && format.charAt(i) == '.') {
+                i++;
+                if (i < n && format.charAt(i) == '*') {
+                    spec.precision = Math.max(intItem(items, next++), 0);
+                    i++;
+                } else {
+                    int start = i;
+                    while (i < n && Character.isDigit(format.charAt(i))) {
+                        i++;
+                    }
+                    spec.precision = i > start ? Integer.parseInt(format.substring(start, i)) : 0;
+                }
+            }
+
+            while (i < n && "hlL".indexOf(format.charAt(i)) >= 0) {
+                i++;
+            }
+
+            if (i >= n) {
+                throw valueError("incomplete format");
+            }
+
+            char conversion = format.charAt(i++);
+
+            if (conversion == '%') {
+                out.append('%');
+                continue;
+            }
+
+            if (value == null) {
+                if (next >= items.size()) {
+                    throw typeError("not enough arguments for format string");
+                }
+                value = items.get(next++);
+            }
+
+            if (zero && spec.align != '<' && "sracSRAC".indexOf(conversion) < 0) {
+                spec.fill = '0';
+                spec.align = '=';
+            }
+
+            switch (conversion) {
+                case 's':
+                    spec.type = 's';
+                    out.append(pad(truncate(strOf(value), spec.precision), spec, '<'));
+                    break;
+                case 'r':
+                case 'a':
+                    out.append(pad(truncate(reprOf(value), spec.precision), spec, '<'));
+                    break;
+                case 'c':
+                    if (value instanceof PyInt) {
+                        out.append(pad(String.valueOf((char) ((PyInt) value).getVal()), spec, '<'));
+                    } else if (value instanceof PyStr && value.str().length() == 1) {
+                        out.append(pad(value.str(), spec, '<'));
+                    } else {
+                        throw typeError("%c requires int or char");
+                    }
+                    break;
+                case 'd':
+                case 'i':
+                case 'u':
+                    spec.type = 'd';
+                    out.append(formatNumber(toLong(value, conversion), spec));
+                    break;
+                case 'x':
+                case 'X':
+                case 'o':
+                    spec.type = conversion;
+                    out.append(formatNumber(toLong(value, conversion), spec));
+                    break;
+                case 'e':
+                case 'E':
+                case 'f':
+                case 'F':
+                case 'g':
+                case 'G':
+                    spec.type = conversion;
+                    if (spec.precision < 0) {
+                        spec.precision = 6;
+                    }
+                    out.append(formatFloat(toDouble(value, conversion), spec));
+                    break;
+                default:
+                    throw valueError("unsupported format character '" + conversion + "'");
+            }
+        }
+
+        if (mapping == null && next < items.size()) {
+            throw typeError("not all arguments converted during string formatting");
+        }
+
+        return out.toString();
+    }
+
+    private static int intItem(ArrayList<PyObject> items, int index) {
+        if (index >= items.size()) {
+            throw typeError("not enough arguments for format string");
+        }
+
+        if (!(items.get(index) instanceof PyInt)) {
+            throw typeError("* wants int");
+        }
+
+        return ((PyInt) items.get(index)).getVal();
+    }
+
+    private static long toLong(PyObject value, char conversion) {
+        if (value instanceof PyInt) {
+            return ((PyInt) value).getVal();
+        }
+
+        if (value instanceof PyBool) {
+            return ((PyBool) value).getIntVal();
+        }
+
+        if (value instanceof PyFloat && conversion != 'x' && conversion != 'X' && conversion != 'o') {
+            return (long) ((PyFloat) value).getVal();
+        }
+
+        throw typeError("%" + conversion + " format: a number is required, not " + value.getType().str());
+    }
+
+    private static double toDouble(PyObject value, char conversion) {
+        if (value instanceof PyFloat) {
+            return ((PyFloat) value).getVal();
+        }
+
+        if (value instanceof PyInt) {
+            return ((PyInt) value).getVal();
+        }
+
+        if (value instanceof PyBool) {
+            return ((PyBool) value).getIntVal();
+        }
+
+        throw typeError("a float is required");
+    }
+
+    /**
+     * Implements str.format for the given positional arguments (in order).
+     */
+    public static String format(String format, ArrayList<PyObject> positional) {
+        StringBuilder out = new StringBuilder(format.length() + 16);
+        int auto = 0;
+        boolean manual = false;
+        int i = 0;
+        int n = format.length();
+
+        while (i < n) {
+            char c = format.charAt(i);
+
+            if (c == '}') {
+                if (i + 1 < n && format.charAt(i + 1) == '}') {
+                    out.append('}');
+                    i += 2;
+                    continue;
+                }
+                throw valueError("Single '}' encountered in format string");
+            }
+
+            if (c != '{') {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            if (i + 1 < n && format.charAt(i + 1) == '{') {
+                out.append('{');
+                i += 2;
+                continue;
+            }
+
+            // Find the matching close brace, allowing one level of nested
+            // fields in the format spec.
+            int depth = 1;
+            int j = i + 1;
+
+            while (j < n && depth > 0) {
+                if (format.charAt(j) == '{') {
+                    depth++;
+                } else if (format.charAt(j) == '}') {
+                    depth--;
+                }
+                j++;
+            }
+
+            if (depth > 0) {
+                throw valueError("Single '{' encountered in format string");
+            }
+
+            String field = format.substring(i + 1, j - 1);
+            i = j;
+
+            String specText = "";
+            int colon = field.indexOf(':');
+
+            if (colon >= 0) {
+                specText = field.substring(colon + 1);
+                field = field.substring(0, colon);
+            }
+
+            char conversion = 0;
+            int bang = field.indexOf('!');
+
+            if (bang >= 0) {
+                if (bang + 2 != field.length()) {
+                    throw valueError("expected ':' after conversion specifier");
+                }
+                conversion = field.charAt(bang + 1);
+                field = field.substring(0, bang);
+            }
+
+            // The name of the argument ends at the first . or [.
+            int end = 0;
+
+            while (end < field.length() && field.charAt(end) != '.' && field.charAt(end) != '[') {
+                end++;
+            }
+
+            String name = field.substring(0, end);
+            int index;
+
+            if (name.isEmpty()) {
+                if (manual) {
+                    throw valueError("cannot switch from manual field specification to automatic field numbering");
+                }
+                index = auto++;
+            } else {
+                if (auto > 0) {
+                    throw valueError("cannot switch from automatic field numbering to manual field specification");
+                }
+                manual = true;
+
+                try {
+                    index = Integer.parseInt(name);
+                } catch (NumberFormatException e) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "KeyError: '" + name + "'");
+                }
+            }
+
+            if (index >= positional.size()) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "IndexError: tuple index out of range");
+            }
+
+            PyObject value = accessFields(positional.get(index), field, end);
+
+            if (specText.indexOf('{') >= 0) {
+                specText = format(specText, positional);
+            }
+
+            if (conversion == 'r' || conversion == 'a') {
+                value = new PyStr(reprOf(value));
+            } else if (conversion == 's') {
+                value = new PyStr(strOf(value));
+            } else if (conversion != 0) {
+                throw valueError("Unknown conversion specifier " + conversion);
+            }
+
+            out.append(formatValue(value, parseSpec(specText)));
+        }
+
+        return out.toString();
+    }
+
+    // Applies the .attr and [key] parts of a replacement field.
+    private static PyObject accessFields(PyObject value, String field, int pos) {
+        while (pos < field.length()) {
+            if (field.charAt(pos) == '.') {
+                int end = pos + 1;
+                while (end < field.length() && field.charAt(end) != '.' && field.charAt(end) != '[') {
+                    end++;
+                }
+                value = value.get(field.substring(pos + 1, end));
+                pos = end;
+            } else {
+                int close = field.indexOf(']', pos);
+                if (close < 0) {
+                    throw valueError("Missing ']' in format string");
+                }
+                String key = field.substring(pos + 1, close);
+                ArrayList<PyObject> args = new ArrayList<PyObject>();
+
+                try {
+                    args.add(new PyInt(Integer.parseInt(key)));
+                } catch (NumberFormatException e) {
+                    args.add(new PyStr(key));
+                }
+
+                value = value.callMethod("__getitem__", args);
+                pos = close + 1;
+            }
+        }
+
+        return value;
+    }
+
+    private static Spec parseSpec(String text) {
+        Spec spec = new Spec();
+        int i = 0;
+        int n = text.length();
+
+        if (n >= 2 && "<>=^".indexOf(text.charAt(1)) >= 0) {
+            spec.fill = text.charAt(0);
+            spec.align = text.charAt(1);
+            i = 2;
+        } else if (n >= 1 && "<>=^".indexOf(text.charAt(0)) >= 0) {
+            spec.align = text.charAt(0);
+            i = 1;
+        }
+
+        if (i < n && "+- ".indexOf(text.charAt(i)) >= 0) {
+            spec.sign = text.charAt(i++);
+        }
+
+        if (i < n && text.charAt(i) == '#') {
+            spec.alternate = true;
+            i++;
+        }
+
+        if (i < n && text.charAt(i) == '0') {
+            if (spec.align == 0) {
+                spec.fill = '0';
+                spec.align = '=';
+            }
+            i++;
+        }
+
+        int start = i;
+        while (i < n && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i > start) {
+            spec.width = Integer.parseInt(text.substring(start, i));
+        }
+
+        if (i < n && text.charAt(i) == ',') {
+            spec.grouping = true;
+            i++;
+        }
+
+        if (i < n && text.charAt(i) == '.') {
+            start = ++i;
+            while (i < n && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == start) {
+                throw valueError("Format specifier missing precision");
+            }
+            spec.precision = Integer.parseInt(text.substring(start, i));
+        }
+
+        if (i < n) {
+            spec.type = text.charAt(i++);
+        }
+
+        if (i < n) {
+            throw valueError("Invalid format specifier");
+        }
+
+        return spec;
+    }
+
+    /**
+     * Lays out one value according to a format specification, the way the
+     * __format__ methods of Python's built in types do.
+     */
+    private static String formatValue(PyObject value, Spec spec) {
+        if (value instanceof PyBool && spec.type == 0) {
+            value = new PyStr(value.str());
+        }
+
+        if (value instanceof PyInt || value instanceof PyBool) {
+            long v = value instanceof PyInt ? ((PyInt) value).getVal() : ((PyBool) value).getIntVal();
+
+            switch (spec.type) {
+                case 0:
+                case 'd':
+                case 'n':
+                case 'b':
+                case 'o':
+                case 'x':
+                case 'X':
+                    return formatNumber(v, spec);
+                case 'c':
+                    return pad(String.valueOf((char) v), spec, '<');
+                case 'e':
+                case 'E':
+                case 'f':
+                case 'F':
+                case 'g':
+                case 'G':
+                case '%':
+                    return formatFloat(v, spec);
+                default:
+                    throw unknownCode(spec.type, value);
+            }
+        }
+
+        if (value instanceof PyFloat) {
+            double v = ((PyFloat) value).getVal();
+
+            switch (spec.type) {
+                case 0:
+                case 'e':
+                case 'E':
+                case 'f':
+                case 'F':
+                case 'g':
+                case 'G':
+                case 'n':
+                case '%':
+                    return formatFloat(v, spec);
+                default:
+                    throw unknownCode(spec.type, value);
+            }
+        }
+
+        if (spec.type != 0 && spec.type != 's') {
+            throw unknownCode(spec.type, value);
+        }
+
+        if (spec.align == '=') {
+            throw valueError("'=' alignment not allowed in string format specifier");
+        }
+
+        String text = value instanceof PyStr ? value.str() : strOf(value);
+
+        return pad(truncate(text, spec.precision), spec, '<');
+    }
+
+    private static PyException unknownCode(char type, PyObject value) {
+        return valueError("Unknown format code '" + type + "' for object of type '" + value.getType().str() + "'");
+    }
+
+    private static String truncate(String text, int precision) {
+        if (precision >= 0 && precision < text.length()) {
+            return text.substring(0, precision);
+        }
+
+        return text;
+    }
+
+    private static String signOf(boolean negative, Spec spec) {
+        if (negative) {
+            return "-";
+        }
+
+        if (spec.sign == '+') {
+            return "+";
+        }
+
+        return spec.sign == ' ' ? " " : "";
+    }
+
+    private static String formatNumber(long v, Spec spec) {
+        String digits;
+        String prefix = "";
+        long magnitude = Math.abs(v);
+
+        switch (spec.type) {
+            case 'b':
+                digits = Long.toBinaryString(magnitude);
+                prefix = spec.alternate ? "0b" : "";
+                break;
+            case 'o':
+                digits = Long.toOctalString(magnitude);
+                prefix = spec.alternate ? "0o" : "";
+                break;
+            case 'x':
+                digits = Long.toHexString(magnitude);
+                prefix = spec.alternate ? "0x" : "";
+                break;
+            case 'X':
+                digits = Long.toHexString(magnitude).toUpperCase();
+                prefix = spec.alternate ? "0X" : "";
+                break;
+            default:
+                digits = Long.toString(magnitude);
+                if (spec.grouping) {
+                    digits = group(digits);
+                }
+        }
+
+        return padNumber(signOf(v < 0, spec) + prefix, digits, spec);
+    }
+
+    private static String formatFloat(double v, Spec spec) {
+        boolean negative = v < 0 || (v == 0 && 1 / v < 0);
+        double magnitude = Math.abs(v);
+        char type = spec.type;
+        boolean upper = type == 'E' || type == 'F' || type == 'G';
+        String body;
+
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            body = Double.isNaN(v) ? "nan" : "inf";
+            negative = v < 0;
+            body = upper ? body.toUpperCase() : body;
+        } else if (type == 0 && spec.precision < 0) {
+            body = PyFloatFormatter.format(magnitude);
+        } else {
+            int precision = spec.precision < 0 ? 6 : spec.precision;
+
+            switch (type) {
+                case 'f':
+                case 'F':
+                    body = fixed(magnitude, precision, spec.alternate);
+                    break;
+                case 'e':
+                case 'E':
+                    body = scientific(magnitude, precision, spec.alternate);
+                    break;
+                case '%':
+                    body = fixed(magnitude * 100, precision, spec.alternate) + "%";
+                    break;
+                default:
+                    body = general(magnitude, precision, spec.alternate);
+            }
+
+            if (upper) {
+                body = body.toUpperCase();
+            }
+        }
+
+        if (spec.grouping && Character.isDigit(body.charAt(0))) {
+            int end = 0;
+            while (end < body.length() && Character.isDigit(body.charAt(end))) {
+                end++;
+            }
+            body = group(body.substring(0, end)) + body.substring(end);
+        }
+
+        return padNumber(signOf(negative, spec), body, spec);
+    }
+
+    private static String fixed(double v, int precision, boolean alternate) {
+        String s = new BigDecimal(v).setScale(precision, RoundingMode.HALF_EVEN).toPlainString();
+
+        return alternate && precision == 0 ? s + "." : s;
+    }
+
+    // The digits of v rounded to the given number of significant digits and
+    // the decimal exponent of the first one.
+    private static Object[] significant(double v, int digits) {
+        if (v == 0) {
+            return new Object[]{"0", 0};
+        }
+
+        BigDecimal rounded = new BigDecimal(v).round(new MathContext(digits, RoundingMode.HALF_EVEN));
+        String unscaled = rounded.unscaledValue().toString();
+        int exponent = unscaled.length() - 1 - rounded.scale();
+
+        return new Object[]{unscaled, exponent};
+    }
+
+    private static String scientific(double v, int precision, boolean alternate) {
+        Object[] parts = significant(v, precision + 1);
+        StringBuilder digits = new StringBuilder((String) parts[0]);
+
+        while (digits.length() < precision + 1) {
+            digits.append('0');
+        }
+        digits.setLength(precision + 1);
+
+        return mantissa(digits.toString(), alternate) + exponent((Integer) parts[1]);
+    }
+
+    private static String mantissa(String digits, boolean point) {
+        if (digits.length() == 1) {
+            return point ? digits + "." : digits;
+        }
+
+        return digits.charAt(0) + "." + digits.substring(1);
+    }
+
+    private static String exponent(int exp) {
+        String sign = exp < 0 ? "-" : "+";
+        int magnitude = Math.abs(exp);
+
+        return "e" + sign + (magnitude < 10 ? "0" : "") + magnitude;
+    }
+
+    private static String general(double v, int precision, boolean alternate) {
+        if (precision == 0) {
+            precision = 1;
+        }
+
+        int exp = (Integer) significant(v, precision)[1];
+        String s;
+
+        if (exp >= -4 && exp < precision) {
+            s = fixed(v, precision - 1 - exp, alternate);
+            if (!alternate && s.indexOf('.') >= 0) {
+                s = stripZeros(s);
+            }
+            return s;
+        }
+
+        s = scientific(v, precision - 1, alternate);
+
+        if (!alternate) {
+            int e = s.indexOf('e');
+            String m = s.substring(0, e);
+            s = (m.indexOf('.') >= 0 ? stripZeros(m) : m) + s.substring(e);
+        }
+
+        return s;
+    }
+
+    private static String stripZeros(String s) {
+        int end = s.length();
+
+        while (s.charAt(end - 1) == '0') {
+            end--;
+        }
+
+        if (s.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        return s.substring(0, end);
+    }
+
+    private static String group(String digits) {
+        StringBuilder s = new StringBuilder(digits.length() + digits.length() / 3);
+        int first = digits.length() % 3;
+
+        if (first == 0) {
+            first = 3;
+        }
+
+        s.append(digits, 0, first);
+
+        for (int k = first; k < digits.length(); k += 3) {
+            s.append(',').append(digits, k, k + 3);
+        }
+
+        return s.toString();
+    }
+
+    private static String padNumber(String sign, String body, Spec spec) {
+        if (spec.align == '=') {
+            int fill = spec.width - sign.length() - body.length();
+            StringBuilder s = new StringBuilder(sign);
+
+            for (int k = 0; k < fill; k++) {
+                s.append(spec.fill);
+            }
+
+            return s.append(body).toString();
+        }
+
+        return pad(sign + body, spec, '>');
+    }
+
+    private static String pad(String text, Spec spec, char defaultAlign) {
+        int fill = spec.width - text.length();
+
+        if (fill <= 0) {
+            return text;
+        }
+
+        char align = spec.align == 0 ? defaultAlign : spec.align;
+        int before = align == '>' ? fill : align == '^' ? fill / 2 : 0;
+        StringBuilder s = new StringBuilder(spec.width);
+
+        for (int k = 0; k < before; k++) {
+            s.append(spec.fill);
+        }
+
+        s.append(text);
+
+        for (int k = before; k < fill; k++) {
+            s.append(spec.fill);
+        }
+
+        return s.toString();
+    }
+}
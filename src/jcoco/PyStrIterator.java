@@ -20,8 +20,7 @@ public class PyStrIterator extends PyPrimitiveTypeAdapter {
     private int index = 0;
 
     PyStrIterator(PyStr str) {
-        super("str_iterator",PyType.PyTypeId.PyStrIteratorType);
-        initMethods(funs());
+        super("str_iterator",PyType.PyTypeId.PyStrIteratorType, true);
         this.str = str;
     }
 
@@ -58,7 +57,7 @@ public class PyStrIterator extends PyPrimitiveTypeAdapter {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stopping iteration");
                 }
 
-                return new PyStr((new Character(self.str.str().charAt(self.index++)).toString()));
+                return PyStr.valueOf(self.str.str().charAt(self.index++));
             }
         });
 
@@ -0,0 +1,33 @@
+/**
+ * PyTextReader.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * PyTextReader is an interface for the readers of the text of a PyFile.
+ *
+ * A file opened in mode 'r' is read through a PyLineReader and one opened
+ * in mode 'rm' through a PyMappedReader. Both read "\r\n" and a lone '\r'
+ * as '\n'. Lines keep their newlines, and the empty string means the end of
+ * the file.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+
+interface PyTextReader {
+
+    public String readLine();
+
+    public String read(int count);
+
+    public ArrayList<PyObject> readLines();
+
+    public boolean atEnd();
+
+    public void close();
+}
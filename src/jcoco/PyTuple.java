@@ -16,21 +16,30 @@
  * >>> type(t)
  * <class 'tuple'>
  * >>> for x in t: ... print(x) ... a b c >>>
+ *
+ * Since a tuple cannot change, a slice of a tuple with a step of 1 is a view
+ * (a java subList) of the same elements rather than a copy, and the hash of
+ * a tuple is computed the first time it is needed and then kept. Tuples are
+ * often used as dictionary keys, so PyHashTable hashes and compares them
+ * with the methods below rather than through __hash__ and __eq__, and so do
+ * java collections through hashCode and equals.
  */
 package jcoco;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import jcoco.PyException.ExceptionType;
 import jcoco.PyType.PyTypeId;
 
 class PyTuple extends PyPrimitiveTypeAdapter {
 
-    protected ArrayList<PyObject> data;
+    protected List<PyObject> data;
+    private int hash;
+    private boolean hashed;
 
-    public PyTuple(ArrayList<PyObject> data) {
-        super("tuple", PyTypeId.PyTupleType);
-        initMethods(funs());
+    public PyTuple(List<PyObject> data) {
+        super("tuple", PyTypeId.PyTupleType, true);
         this.data = data;
     }
 
@@ -38,23 +47,27 @@ class PyTuple extends PyPrimitiveTypeAdapter {
     public String str() {
         ArrayList<PyObject> args = new ArrayList<PyObject>();
 
-        String str = "(";
+        StringBuilder str = new StringBuilder("(");
 
         try {
             for (int i = 0; i < this.data.size(); i++) {
-                str += (this.data.get(i).callMethod("__repr__", args)).str();
+                str.append((this.data.get(i).callMethod("__repr__", args)).str());
 
                 if (i < this.data.size() - 1) {
-                    str += ", ";
+                    str.append(", ");
                 }
             }
         } catch (PyException e) {
             System.err.println(e.getMessage());
         }
 
-        str += ")";
+        if (this.data.size() == 1) {
+            str.append(",");
+        }
+
+        str.append(")");
 
-        return str;
+        return str.toString();
     }
 
     public PyObject getVal(int index) {
@@ -69,6 +82,162 @@ class PyTuple extends PyPrimitiveTypeAdapter {
         return this.data.size();
     }
 
+    /**
+     * The hash of the tuple, computed from the hashes of the elements the
+     * same way CPython 3.2 does. An unhashable element raises a TypeError.
+     */
+    public int hash() {
+        if (!this.hashed) {
+            int len = this.data.size();
+            int x = 0x345678;
+            int mult = 1000003;
+
+            for (int k = 0; k < len; k++) {
+                x = (x ^ PyHashTable.hashOf(this.data.get(k))) * mult;
+                mult += 82520 + len + len;
+            }
+
+            this.hash = x + 97531;
+            this.hashed = true;
+        }
+
+        return this.hash;
+    }
+
+    public boolean equalTo(PyTuple other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (this.data.size() != other.data.size()) {
+            return false;
+        }
+
+        // Tuples whose hashes are known and differ cannot be equal.
+        if (this.hashed && other.hashed && this.hash != other.hash) {
+            return false;
+        }
+
+        return firstDifference(other) == this.data.size();
+    }
+
+    // The index of the first elements of the two tuples that are not equal,
+    // or the length of the shorter tuple if there is none.
+    private int firstDifference(PyTuple other) {
+        int len = Math.min(this.data.size(), other.data.size());
+
+        for (int k = 0; k < len; k++) {
+            if (!PyHashTable.keysEqual(this.data.get(k), other.data.get(k))) {
+                return k;
+            }
+        }
+
+        return len;
+    }
+
+    /**
+     * Compares the tuples the way Python does: by the first elements that
+     * differ or, if one tuple is a prefix of the other, by length.
+     *
+     * @return whether this tuple is less than (or, with orEqual set, less
+     * than or equal to) the other
+     */
+    public boolean lessThan(PyTuple other, boolean orEqual) {
+        int k = firstDifference(other);
+
+        if (k == this.data.size() || k == other.data.size()) {
+            return orEqual ? this.data.size() <= other.data.size() : this.data.size() < other.data.size();
+        }
+
+        return lessThan(this.data.get(k), other.data.get(k));
+    }
+
+    static boolean lessThan(PyObject a, PyObject b) {
+        if (a instanceof PyInt && b instanceof PyInt) {
+            return ((PyInt) a).getVal() < ((PyInt) b).getVal();
+        }
+
+        if (a instanceof PyFloat && b instanceof PyFloat) {
+            return ((PyFloat) a).getVal() < ((PyFloat) b).getVal();
+        }
+
+        if (a instanceof PyInt && b instanceof PyFloat) {
+            return ((PyInt) a).getVal() < ((PyFloat) b).getVal();
+        }
+
+        if (a instanceof PyFloat && b instanceof PyInt) {
+            return ((PyFloat) a).getVal() < ((PyInt) b).getVal();
+        }
+
+        if (a instanceof PyStr && b instanceof PyStr) {
+            return a.str().compareTo(b.str()) < 0;
+        }
+
+        if (a instanceof PyTuple && b instanceof PyTuple) {
+            return ((PyTuple) a).lessThan((PyTuple) b, false);
+        }
+
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+        args.add(b);
+
+        return ((PyBool) a.callMethod("__lt__", args)).getVal();
+    }
+
+    @Override
+    public int hashCode() {
+        return hash();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PyTuple && equalTo((PyTuple) o);
+    }
+
+    public PyTuple slice(PySlice slice) {
+        int[] indices = slice.indices(this.data.size());
+        int start = indices[0];
+        int step = indices[2];
+        int count = indices[3];
+
+        if (step == 1) {
+            return new PyTuple(this.data.subList(start, start + count));
+        }
+
+        ArrayList<PyObject> result = new ArrayList<PyObject>(count);
+
+        for (int k = 0; k < count; k++) {
+            result.add(this.data.get(start + k * step));
+        }
+
+        return new PyTuple(result);
+    }
+
+    // Checks the argument count and the type of the other operand of a
+    // comparison, returning the other tuple or null if it is not a tuple.
+    private static PyTuple otherTuple(ArrayList<PyObject> args) {
+        if (args.size() != 2) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
+                    "TypeError: expected 2 arguments, got " + args.size());
+        }
+
+        if (args.get(0) instanceof PyTuple) {
+            return (PyTuple) args.get(0);
+        }
+
+        return null;
+    }
+
+    private static PyTuple orderedTuple(ArrayList<PyObject> args, String op) {
+        PyTuple other = otherTuple(args);
+
+        if (other == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "TypeError: unorderable types: tuple() " + op + " " + args.get(0).getType().str() + "()");
+        }
+
+        return other;
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
@@ -80,27 +249,15 @@ class PyTuple extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                int total = 0;
-                int val;
-                int k;
-
                 PyTuple self = (PyTuple) args.get(args.size() - 1);
 
-                for (k = 0; k < self.data.size(); k++) {
-                    val = ((PyInt) (self.data.get(k).callMethod("__hash__", args))).getVal();
-                    total = (total + (val % Integer.MAX_VALUE / 2) % (Integer.MAX_VALUE / 2));
-                }
-
-                return new PyInt(total);
+                return new PyInt(self.hash());
             }
-        }
-        );
+        });
 
-        funs.put(
-                "__getitem__", new PyCallableAdapter() {
+        funs.put("__getitem__", new PyCallableAdapter() {
             @Override
-            public PyObject __call__(ArrayList<PyObject> args
-            ) {
+            public PyObject __call__(ArrayList<PyObject> args) {
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
@@ -108,18 +265,29 @@ class PyTuple extends PyPrimitiveTypeAdapter {
 
                 PyTuple self = (PyTuple) args.get(args.size() - 1);
 
+                if (args.get(0) instanceof PySlice) {
+                    return self.slice((PySlice) args.get(0));
+                }
+
                 PyInt intObj = (PyInt) args.get(0);
+                int index = intObj.getVal();
 
-                return self.getVal(intObj.getVal());
+                if (index < 0) {
+                    index += self.data.size();
+                }
+
+                if (index < 0 || index >= self.data.size()) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                            "IndexError: tuple index out of range");
+                }
+
+                return self.data.get(index);
             }
-        }
-        );
+        });
 
-        funs.put(
-                "__len__", new PyCallableAdapter() {
+        funs.put("__len__", new PyCallableAdapter() {
             @Override
-            public PyObject __call__(ArrayList<PyObject> args
-            ) {
+            public PyObject __call__(ArrayList<PyObject> args) {
                 if (args.size() != 1) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
@@ -129,14 +297,11 @@ class PyTuple extends PyPrimitiveTypeAdapter {
 
                 return new PyInt(self.data.size());
             }
-        }
-        );
+        });
 
-        funs.put(
-                "__iter__", new PyCallableAdapter() {
+        funs.put("__iter__", new PyCallableAdapter() {
             @Override
-            public PyObject __call__(ArrayList<PyObject> args
-            ) {
+            public PyObject __call__(ArrayList<PyObject> args) {
                 if (args.size() != 1) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
@@ -146,8 +311,67 @@ class PyTuple extends PyPrimitiveTypeAdapter {
 
                 return new PyTupleIterator(self);
             }
-        }
-        );
+        });
+
+        funs.put("__eq__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = otherTuple(args);
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(other != null && self.equalTo(other));
+            }
+        });
+
+        funs.put("__ne__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = otherTuple(args);
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(other == null || !self.equalTo(other));
+            }
+        });
+
+        funs.put("__lt__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = orderedTuple(args, "<");
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(self.lessThan(other, false));
+            }
+        });
+
+        funs.put("__le__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = orderedTuple(args, "<=");
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(self.lessThan(other, true));
+            }
+        });
+
+        funs.put("__gt__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = orderedTuple(args, ">");
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(other.lessThan(self, false));
+            }
+        });
+
+        funs.put("__ge__", new PyCallableAdapter() {
+            @Override
+            public PyObject __call__(ArrayList<PyObject> args) {
+                PyTuple other = orderedTuple(args, ">=");
+                PyTuple self = (PyTuple) args.get(args.size() - 1);
+
+                return new PyBool(other.lessThan(self, true));
+            }
+        });
 
         return funs;
     }
@@ -20,8 +20,7 @@ public class PyTupleIterator extends PyPrimitiveTypeAdapter {
     private int index;
 
     public PyTupleIterator(PyTuple tuple) {
-        super("tuple_iterator", PyType.PyTypeId.PyTupleIteratorType);
-        initMethods(funs());
+        super("tuple_iterator", PyType.PyTypeId.PyTupleIteratorType, true);
 
         this.tuple = tuple;
         this.index = 0;
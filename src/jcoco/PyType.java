@@ -50,6 +50,28 @@ public class PyType extends PyCallableAdapter {
         PyExceptionTypeId,
         PyDictType,
         PyDictKeyIteratorType,
+        PyDictValueIteratorType,
+        PyDictItemIteratorType,
+        PyDictKeysType,
+        PyDictValuesType,
+        PyDictItemsType,
+        PySetTypeId,
+        PyFrozenSetTypeId,
+        PySetIteratorType,
+        PySliceTypeId,
+        PyMapIteratorTypeId,
+        PyFilterIteratorTypeId,
+        PyZipIteratorTypeId,
+        PyEnumerateIteratorTypeId,
+        PyReversedIteratorTypeId,
+        PyArrayTypeId,
+        PyArrayIteratorTypeId,
+        PyDequeTypeId,
+        PyDequeIteratorTypeId,
+        PyBytesTypeId,
+        PyByteArrayTypeId,
+        PyMemoryViewTypeId,
+        PyBytesIteratorTypeId,
         PyBaseCallable,
         PyMapType,
         PySuperTypeId,
@@ -112,4 +134,14 @@ public class PyType extends PyCallableAdapter {
     public void setInstanceFuns(HashMap<String, PyCallable> funs) {
         attrs.putAll(funs);
     }
+
+    public PyCallable instanceFun(String name) {
+        PyObject fun = attrs.get(name);
+
+        if (fun instanceof PyCallable) {
+            return (PyCallable) fun;
+        }
+
+        return null;
+    }
 }
@@ -0,0 +1,47 @@
+import disassembler
+import sys
+import array
+
+def main():
+	a = array.array("i", [3, 1, 4, 1, 5])
+	a.append(9)
+	a.extend([2, 6])
+	print(a, len(a), a[0], a[-1])
+	a[1] = 100
+	print(a[1:4], a[::-1], a.tolist())
+	print(sum(a), min(a), max(a), sorted(a))
+
+	d = array.array("d", [0.5, 1.5])
+	d.append(2)
+	print(d, sum(d))
+
+	b = array.array("b")
+	for i in range(-3, 4):
+		b.append(i * 40)
+	print(b)
+	try:
+		b.append(128)
+	except Exception:
+		print("128 does not fit in a signed char")
+
+	big = array.array("l", range(10000))
+	total = 0
+	for x in big:
+		total = total + x
+	print(len(big), total, sum(big))
+
+	# An array is written to and read from a binary file as raw machine values.
+	f = open("arraytest.bin", "wb")
+	big.tofile(f)
+	f.close()
+
+	back = array.array("l")
+	f = open("arraytest.bin", "rb")
+	back.fromfile(f, 10000)
+	f.close()
+	print(len(back), back[0], back[9999], back.tolist() == big.tolist())
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
@@ -0,0 +1,66 @@
+import disassembler
+import sys
+
+def main():
+	b = "hello world".encode("ascii")
+	print(b, len(b), b[0], b[-1], b[6:], b[::-1])
+	print(b.find("wor".encode("ascii")), 104 in b, b.decode("ascii").upper())
+	print(b + bytes([33, 10]), bytes(3), bytes([0, 127, 128, 255]))
+	print(b[0:5] == "hello".encode("ascii"), b != b[1:])
+
+	ba = bytearray(b)
+	ba[0] = 72
+	ba.append(33)
+	ba.extend([63, 63])
+	print(ba, len(ba))
+
+	# A memoryview reads and writes the bytearray it is a view of, and so do
+	# slices of it.
+	mv = memoryview(ba)
+	part = mv[6:11]
+	part[0] = 87
+	print(ba, len(part), part.tobytes(), part.tolist()[:2])
+	every = mv[::2]
+	print(every.tobytes(), every[1])
+
+	# While views are in use the bytearray cannot change its size.
+	try:
+		ba.append(0)
+	except Exception:
+		print("cannot resize while viewed")
+	every.release()
+	part.release()
+	mv.release()
+	ba.append(46)
+	print(ba)
+
+	ro = memoryview(b)
+	try:
+		ro[0] = 0
+	except Exception:
+		print("bytes are read-only")
+	print(ro[1:3].tobytes())
+
+	# Binary files are read and written as bytes.
+	f = open("bytestest.bin", "wb")
+	f.write(b)
+	f.write(memoryview(ba)[0:5])
+	f.close()
+
+	f = open("bytestest.bin", "ab")
+	f.write(bytes([10]))
+	f.close()
+
+	f = open("bytestest.bin", "rb")
+	print(f.read(5))
+	buf = bytearray(6)
+	n = f.readinto(buf)
+	print(n, buf)
+	print(f.read())
+	print(f.read())
+	f.close()
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
@@ -0,0 +1,48 @@
+import disassembler
+import sys
+import collections
+
+def main():
+	d = collections.deque()
+	for i in range(5):
+		d.append(i)
+		d.appendleft(-i)
+	print(d, len(d))
+	print(d.pop(), d.popleft(), d[0], d[-1])
+
+	d.rotate(2)
+	print(d)
+	d.rotate(-3)
+	print(d)
+
+	d.extend([10, 11])
+	d.extendleft("ab")
+	print(d, 10 in d, 99 in d)
+
+	d[1] = "changed"
+	print(d[1], list(d)[:3])
+
+	# A deque with a maxlen keeps only the last maxlen elements.
+	window = collections.deque([], 3)
+	total = 0
+	for x in [4, 8, 15, 16, 23, 42]:
+		window.append(x)
+		total = total + sum(window)
+	print(window, total)
+
+	queue = collections.deque(range(10000))
+	count = 0
+	while len(queue) > 0:
+		x = queue.popleft()
+		if x % 1000 == 0:
+			queue.append(x + 1)
+		count = count + 1
+	print(count, len(queue))
+
+	d.clear()
+	print(d, bool(d))
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
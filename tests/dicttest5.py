@@ -0,0 +1,42 @@
+import disassembler
+import sys
+
+def main():
+	d = {}
+	for i in range(1000):
+		d[i] = i * i
+
+	print(len(d), d[0], d[999], 500 in d, 1000 in d)
+
+	print(d.get(2000, "missing"), d.get(3))
+
+	for i in range(1000):
+		d[i] = i
+
+	total = 0
+	for v in d.values():
+		total = total + v
+	print(len(d), total)
+
+	# Tuples, strings, and numbers are keys; 1 and 1.0 are the same key.
+	e = {(1, 2): "tuple", "one": 1, 1: "int"}
+	e[1.0] = "float"
+	print(e[(1, 2)], e["one"], e[1], len(e))
+
+	words = "the quick brown fox jumps over the lazy dog the end".split()
+	counts = {}
+	for w in words:
+		counts[w] = counts.get(w, 0) + 1
+
+	print(len(counts), counts["the"], counts["fox"], "cat" in counts)
+
+	total = 0
+	for item in counts.items():
+		total = total + item[1]
+	print(total)
+	print({"a": 1} == {"a": 1}, {"a": 1} != {"a": 2})
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
@@ -0,0 +1,82 @@
+import disassembler
+import sys
+
+def main():
+	f = open("filetest2.txt", "w")
+	f.write("first line\n")
+	f.writelines(["second line\n", "third ", "line\n"])
+	f.close()
+
+	# Appending keeps what is already in the file.
+	f = open("filetest2.txt", "a")
+	f.write("fourth line\n")
+	f.writelines(["fifth line"])
+	f.close()
+
+	f = open("filetest2.txt", "r")
+	line = f.readline()
+	while line != "":
+		sys.stdout.write(line)
+		line = f.readline()
+	print()
+	f.close()
+
+	count = 0
+	for line in open("filetest2.txt", "r"):
+		count = count + len(line)
+	print(count)
+
+	f = open("filetest2.txt", "r")
+	sys.stdout.write(f.readline())
+	print(f.read(7))
+	lines = f.readlines()
+	print(len(lines))
+	for line in lines:
+		sys.stdout.write(line)
+	print()
+	print(f.readline() == "")
+	f.close()
+
+	f = open("filetest2.txt", "r")
+	text = f.read()
+	f.close()
+	print(len(text), text.split("\n")[-1])
+
+	# Text files read "\r\n" and a lone "\r" as "\n".
+	f = open("filetest2.crlf", "w")
+	f.write("one\r\ntwo\rthree\r\n\r\nfour")
+	f.close()
+
+	f = open("filetest2.crlf", "r")
+	print(f.readline() == "one\n", f.read(4) == "two\n", f.readlines() == ["three\n", "\n", "four"])
+	f.close()
+
+	f = open("filetest2.crlf", "r")
+	print(f.read().split("\n"))
+	f.close()
+
+	# The 'rm' mode maps the file into memory. Where it is not known the
+	# file is read in 'r' mode instead.
+	try:
+		f = open("filetest2.txt", "rm")
+	except Exception:
+		f = open("filetest2.txt", "r")
+	print(f.readline(), f.readline() + f.read(5), len(f.readlines()))
+	f.close()
+
+	try:
+		f = open("filetest2.crlf", "rm")
+	except Exception:
+		f = open("filetest2.crlf", "r")
+	print(f.readline() == "one\n", f.read(4) == "two\n", f.readlines() == ["three\n", "\n", "four"])
+	f.close()
+
+	try:
+		open("filetest2.txt", "q")
+	except Exception:
+		print("bad mode")
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
@@ -0,0 +1,44 @@
+import disassembler
+import sys
+import heapq
+
+def main():
+	heap = []
+	for x in [5, 1, 8, 3, 9, 2, 7]:
+		heapq.heappush(heap, x)
+	print(heap[0], len(heap))
+
+	out = []
+	while len(heap) > 0:
+		out.append(heapq.heappop(heap))
+	print(out)
+
+	data = [9, 4, 7, 1, 8, 2, 6, 3, 5, 0]
+	heapq.heapify(data)
+	print(data[0], heapq.heappop(data), heapq.heappop(data), data[0])
+
+	# Tuples order by priority first, then by the item.
+	tasks = []
+	heapq.heappush(tasks, (3, "write tests"))
+	heapq.heappush(tasks, (1, "fix bug"))
+	heapq.heappush(tasks, (2, "review"))
+	heapq.heappush(tasks, (1, "deploy"))
+	while len(tasks) > 0:
+		print(heapq.heappop(tasks))
+
+	floats = [2.5, 0.5, 1.5]
+	heapq.heapify(floats)
+	heapq.heappush(floats, 1.0)
+	print(heapq.heappop(floats), heapq.heappop(floats))
+
+	nums = []
+	for i in range(100):
+		nums.append((i * 53) % 97)
+	print(heapq.nsmallest(5, nums), heapq.nlargest(3, nums))
+	print(heapq.nsmallest(3, ["pear", "fig", "apple", "kiwi"], len))
+	print(heapq.nlargest(0, nums), heapq.nsmallest(10, [2, 1]))
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
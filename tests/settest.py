@@ -0,0 +1,37 @@
+import disassembler
+import sys
+
+def main():
+	s = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5}
+	print(len(s), 4 in s, 7 in s)
+	print(s == {1, 2, 3, 4, 5, 6, 9})
+
+	evens = set(range(0, 10, 2))
+	print(s | evens == {0, 1, 2, 3, 4, 5, 6, 8, 9})
+	print(s & evens == {2, 4, 6}, len(s & evens))
+	print(s - evens == {1, 3, 5, 9}, len(s - evens))
+	print(s ^ evens == {0, 1, 3, 5, 8, 9}, len(s ^ evens))
+	print({1, 2} <= {1, 2, 3}, {1, 2} < {1, 2}, {1, 2, 3} >= {3})
+
+	s.add(7)
+	s.discard(100)
+	s.remove(1)
+	print(s == {2, 3, 4, 5, 6, 7, 9}, 1 in s, 7 in s)
+
+	squares = {x * x % 10 for x in range(20)}
+	print(squares == {0, 1, 4, 5, 6, 9}, len(squares))
+
+	# A frozenset can be a key of a dict or an element of a set.
+	f = frozenset([1, 2, 3])
+	d = {f: "found"}
+	print(d[frozenset([3, 2, 1])], f in {f}, len(f))
+
+	t = set()
+	for i in range(1000):
+		t.add(i % 37)
+	print(len(t), t.isdisjoint({100, 200}), t.issuperset({0, 36}))
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
@@ -0,0 +1,37 @@
+import disassembler
+import sys
+
+def main():
+	lst = list(range(10))
+	print(lst[2:5], lst[:3], lst[7:], lst[-3:], lst[::2], lst[::-1], lst[8:2:-2])
+	print(lst[5:2], lst[100:], lst[-100:2])
+
+	# A slice is a new list: changing one does not change the other.
+	part = lst[1:4]
+	part[0] = 99
+	lst[2] = 42
+	print(part, lst[:4])
+
+	inner = lst[2:9][1:5][::2]
+	print(inner, len(inner))
+
+	t = (1, 2, 3, 4, 5)
+	print(t[1:3], t[::-1], t[:0])
+
+	s = "hello world"
+	print(s[:5], s[6:], s[::-1], s[-5:-1], s[::3])
+
+	words = s.split()
+	print(words[0][1:4] + words[1][-3:])
+
+	total = 0
+	data = list(range(1000))
+	for i in range(0, 1000, 100):
+		for x in data[i:i + 10]:
+			total = total + x
+	print(total)
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
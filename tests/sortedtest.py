@@ -0,0 +1,33 @@
+import disassembler
+import sys
+
+def main():
+	print(sorted([5, 2, 8, 1, 9, 3]))
+	print(sorted([2.5, -1.0, 3.25, 0.0]))
+	print(sorted([3, 1.5, 2, 0.5]))
+	print(sorted(["pear", "apple", "fig", "banana", "Cherry"]))
+	print(sorted([(2, "b"), (1, "z"), (2, "a"), (1, "a")]))
+	print(sorted("sorting"))
+	print(sorted(range(10, 0, -3)))
+	print(sorted({"c": 3, "a": 1, "b": 2}))
+	print(sorted([]))
+
+	lst = []
+	for i in range(100):
+		lst.append((i * 37) % 101)
+	lst.sort()
+	print(lst[:10], lst[-5:])
+
+	words = "the quick brown fox jumps over the lazy dog".split()
+	words.sort()
+	print(words)
+	print(sorted(words)[::-1])
+
+	# sorted makes a new list and leaves its argument alone.
+	nums = [3, 1, 2]
+	print(sorted(nums), nums)
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)